@@ -0,0 +1,98 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput and allocation of the formatting paths: process(String) and
+ * the streaming process(Reader, Writer) of both processors, on the small
+ * (1 KB), medium (100 KB) and large (10 MB) fixtures. jsonOrgBaseline
+ * formats the same JSON through org.json's tree, for comparison.
+ *
+ * Run with the GC profiler so allocation shows up next to the timings
+ * (gc.alloc.rate.norm is bytes allocated per operation):
+ *
+ *     mvn -P jmh package
+ *     java -jar target/benchmarks.jar DataProcessorBenchmark -prof gc
+ *
+ * or run this class's main, which adds the profiler itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataProcessorBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String fixture;
+
+    private final XMLProcessor xmlProcessor = new XMLProcessor();
+    private final JsonProcessor jsonProcessor = new JsonProcessor();
+
+    private String xml;
+    private String json;
+
+    @Setup
+    public void setUp() {
+        int size = Fixtures.size(fixture);
+        xml = Fixtures.xml(size);
+        json = Fixtures.json(size);
+    }
+
+    @Benchmark
+    public String xmlToString() {
+        return xmlProcessor.process(xml);
+    }
+
+    @Benchmark
+    public String jsonToString() {
+        return jsonProcessor.process(json);
+    }
+
+    // The streaming paths write to a null Writer so only formatting is measured
+    @Benchmark
+    public void xmlStreaming() throws IOException {
+        xmlProcessor.process(new StringReader(xml), Writer.nullWriter());
+    }
+
+    @Benchmark
+    public void jsonStreaming() throws IOException {
+        jsonProcessor.process(new StringReader(json), Writer.nullWriter());
+    }
+
+    // The fixture's root is an array, so JSONArray rather than JSONObject
+    @Benchmark
+    public String jsonOrgBaseline() {
+        return new JSONArray(json).toString(4);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(DataProcessorBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
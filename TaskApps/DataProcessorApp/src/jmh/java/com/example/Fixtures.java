@@ -0,0 +1,64 @@
+package com.example;
+
+/**
+ * Benchmark payloads, generated so that no large files have to be checked
+ * in. The same size always gives the same document, and the XML and JSON
+ * fixtures describe the same orders.
+ */
+final class Fixtures {
+
+    static final int SMALL = 1024;
+    static final int MEDIUM = 100 * 1024;
+    static final int LARGE = 10 * 1024 * 1024;
+
+    private Fixtures() {
+    }
+
+    static int size(String name) {
+        switch (name) {
+            case "small":
+                return SMALL;
+            case "medium":
+                return MEDIUM;
+            case "large":
+                return LARGE;
+            default:
+                throw new IllegalArgumentException("Unknown fixture: " + name);
+        }
+    }
+
+    /**
+     * Orders as XML, about {@code size} characters long.
+     */
+    static String xml(int size) {
+        StringBuilder xml = new StringBuilder(size + 256);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><orders>");
+        for (int i = 0; xml.length() < size; i++) {
+            xml.append("<order id=\"").append(i).append("\">")
+                .append("<customer>Customer ").append(i % 97).append("</customer>")
+                .append("<amount currency=\"KES\">").append(i * 13 % 10000).append(".50</amount>")
+                .append("<note>Deliver &amp; confirm</note>")
+                .append("</order>");
+        }
+        return xml.append("</orders>").toString();
+    }
+
+    /**
+     * The same orders as a JSON array, about {@code size} characters long.
+     */
+    static String json(int size) {
+        StringBuilder json = new StringBuilder(size + 256);
+        json.append('[');
+        for (int i = 0; json.length() < size; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                .append(",\"customer\":\"Customer ").append(i % 97).append('"')
+                .append(",\"amount\":{\"currency\":\"KES\",\"value\":").append(i * 13 % 10000).append(".50}")
+                .append(",\"note\":\"Deliver & confirm\\n\",\"express\":").append(i % 3 == 0)
+                .append('}');
+        }
+        return json.append(']').toString();
+    }
+}
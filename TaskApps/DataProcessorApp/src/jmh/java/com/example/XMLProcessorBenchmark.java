@@ -0,0 +1,93 @@
+package com.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+/**
+ * XMLProcessor.process(String) with the per-thread builder and transformer,
+ * against creating both factories on every call as it used to.
+ *
+ *     mvn -P jmh package
+ *     java -jar target/benchmarks.jar XMLProcessorBenchmark
+ *
+ * The 4-thread variants all share one XMLProcessor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XMLProcessorBenchmark {
+
+    // 1 KB, 100 KB, 10 MB
+    @Param({"1024", "102400", "10485760"})
+    public int size;
+
+    private final XMLProcessor processor = new XMLProcessor();
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        payload = Fixtures.xml(size);
+    }
+
+    @Benchmark
+    public String pooled() {
+        return processor.process(payload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String pooledFourThreads() {
+        return processor.process(payload);
+    }
+
+    @Benchmark
+    public String perCallFactories() throws Exception {
+        return perCall(payload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String perCallFactoriesFourThreads() throws Exception {
+        return perCall(payload);
+    }
+
+    // What process(String) did before the builders were kept per thread
+    private static String perCall(String input) throws Exception {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        document.getDocumentElement().normalize();
+
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(document), new StreamResult(writer));
+        return writer.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The formats a {@link ProcessorRegistry} can route to, and detection of
+ * the format from the first non-blank character of a payload. Nothing is
+ * parsed, so detection costs the same for a 10 byte payload as for a 10 GB
+ * one; whether the payload is actually valid is left to the processor.
+ */
+public enum DataFormat {
+    XML,
+    JSON;
+
+    // How far into a stream to look past a byte order mark and whitespace
+    private static final int SNIFF_LIMIT = 1024;
+
+    /**
+     * Detects the format of a String payload.
+     *
+     * @return the format, or null if the first character matches none
+     */
+    public static DataFormat detect(CharSequence data) {
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == '\uFEFF' || isWhitespace(c)) {
+                continue;
+            }
+            return classify(c);
+        }
+        return null;
+    }
+
+    /**
+     * Detects the format from the first bytes of a stream without consuming
+     * them: the stream is marked and reset, so it must support mark, as a
+     * BufferedInputStream does. Byte order marks and the zero bytes of
+     * UTF-16 and UTF-32 are skipped; the processors' stream methods work
+     * out the encoding themselves.
+     *
+     * @return the format, or null if the first character matches none
+     */
+    public static DataFormat detect(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("The stream must support mark and reset");
+        }
+        in.mark(SNIFF_LIMIT);
+        try {
+            for (int i = 0; i < SNIFF_LIMIT; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    return null;
+                }
+                if (b == 0 || b == 0xEF || b == 0xBB || b == 0xBF || b == 0xFE || b == 0xFF || isWhitespace(b)) {
+                    continue;
+                }
+                return classify(b);
+            }
+            return null;
+        } finally {
+            in.reset();
+        }
+    }
+
+    private static DataFormat classify(int c) {
+        if (c == '<') {
+            return XML;
+        }
+        if (c == '{' || c == '[' || c == '"' || c == '-' || (c >= '0' && c <= '9')
+                || c == 't' || c == 'f' || c == 'n') {
+            return JSON;
+        }
+        return null;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
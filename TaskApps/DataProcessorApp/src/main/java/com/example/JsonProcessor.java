@@ -1,12 +1,37 @@
 package  com.example;
 
-import  org.json.JSONException;
-import  org.json.JSONObject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
-public class JsonProcessor implements DataProcessor {
+public class JsonProcessor implements DataProcessor, StreamingDataProcessor {
+
+    private final int indent;
+
+    public JsonProcessor() {
+        this(4);
+    }
+
+    /**
+     * @param indent Spaces per nesting level; 0 writes each value on one line.
+     */
+    public JsonProcessor(int indent) {
+        this.indent = indent;
+    }
 
     /**
      * Processes the input JSON data and returns a formatted string.
+     * The root may be an object, an array or a scalar, and NDJSON input
+     * gives one formatted value per record. Keys keep their input order.
      *
      * @param inputData The JSON data to be processed.
      * @return A formatted string representation of the JSON data.
@@ -15,12 +40,90 @@ public class JsonProcessor implements DataProcessor {
     @Override
     public String process(String inputData){
 
+        StringWriter output = new StringWriter();
         try {
-            JSONObject jsonobject = new JSONObject(inputData);
-             return jsonobject.toString(4);
-            
-        } catch (JSONException e) {
-            return "Invalid JSON data: " + e.getMessage();
+            new JsonStreamFormatter(new StringReader(inputData), output, indent).formatAll();
+            return output.toString();
+
+        } catch (IOException e) {
+            // The formatter's messages already start with "Invalid JSON data"
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Pretty-prints JSON token by token, without building a tree.
+     * NDJSON and other sequences of values are formatted value by value.
+     *
+     * @param input The JSON data to be processed.
+     * @param output Where the formatted JSON is written.
+     * @throws IOException If the JSON is invalid, or on a read or write error.
+     */
+    @Override
+    public void process(Reader input, Writer output) throws IOException {
+        new JsonStreamFormatter(input, output, indent).formatAll();
+    }
+
+    /**
+     * Pretty-prints JSON from a stream, token by token. The input may be
+     * UTF-8, UTF-16 or UTF-32, with or without a byte order mark; the
+     * output is UTF-8.
+     *
+     * @param input The JSON data to be processed.
+     * @param output Where the formatted JSON is written.
+     * @throws IOException If the JSON is invalid, or on a read or write error.
+     */
+    @Override
+    public void process(InputStream input, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        process(decode(input), writer);
+        writer.flush();
+    }
+
+    // Picks the encoding as RFC 4627 section 3 does: from the byte order mark,
+    // or else from where the zero bytes of the first (ASCII) character fall.
+    // The byte order mark itself is skipped.
+    static Reader decode(InputStream input) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(input, 4);
+        byte[] head = new byte[4];
+        int n = in.readNBytes(head, 0, head.length);
+        int b0 = n > 0 ? head[0] & 0xFF : -1;
+        int b1 = n > 1 ? head[1] & 0xFF : -1;
+        int b2 = n > 2 ? head[2] & 0xFF : -1;
+        int b3 = n > 3 ? head[3] & 0xFF : -1;
+
+        Charset charset;
+        int bom = 0;
+        if (b0 == 0 && b1 == 0 && b2 == 0xFE && b3 == 0xFF) {
+            charset = Charset.forName("UTF-32BE");
+            bom = 4;
+        } else if (b0 == 0xFF && b1 == 0xFE && b2 == 0 && b3 == 0) {
+            charset = Charset.forName("UTF-32LE");
+            bom = 4;
+        } else if (b0 == 0xFE && b1 == 0xFF) {
+            charset = StandardCharsets.UTF_16BE;
+            bom = 2;
+        } else if (b0 == 0xFF && b1 == 0xFE) {
+            charset = StandardCharsets.UTF_16LE;
+            bom = 2;
+        } else if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            charset = StandardCharsets.UTF_8;
+            bom = 3;
+        } else if (b0 == 0 && b1 == 0 && b2 == 0 && b3 > 0) {
+            charset = Charset.forName("UTF-32BE");
+        } else if (b0 == 0 && b1 > 0) {
+            charset = StandardCharsets.UTF_16BE;
+        } else if (b0 > 0 && b1 == 0 && b2 == 0 && b3 == 0) {
+            charset = Charset.forName("UTF-32LE");
+        } else if (b0 > 0 && b1 == 0) {
+            charset = StandardCharsets.UTF_16LE;
+        } else {
+            charset = StandardCharsets.UTF_8;
+        }
+
+        if (n > bom) {
+            in.unread(head, bom, n - bom);
         }
+        return new InputStreamReader(in, charset);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,358 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Re-indents JSON one token at a time, without building a tree.
+ *
+ * Strings and numbers are checked and copied through as written, and
+ * objects and arrays are tracked on a small stack, so memory use depends
+ * only on how deeply the input is nested. Any value may be at the root,
+ * including arrays and scalars. With an indent above zero the layout matches
+ * {@code JSONObject.toString(indent)}, except that keys keep their input
+ * order and an object with one member is split over lines like any other,
+ * where org.json keeps it on one line. With zero each value is written
+ * compactly on one line.
+ *
+ * {@link #formatAll()} accepts a sequence of values, such as NDJSON (one
+ * value per line), and writes each one on a line of its own. A byte order
+ * mark at the start of the input is skipped.
+ */
+public class JsonStreamFormatter {
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+
+    private final Reader in;
+    private final Writer out;
+    private final int indent;
+
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long offset;
+
+    private final char[] outBuffer = new char[8192];
+    private int outCount;
+
+    // Open containers, and whether each has had a member yet
+    private byte[] containers = new byte[32];
+    private boolean[] hasMembers = new boolean[32];
+    private int depth;
+
+    public JsonStreamFormatter(Reader in, Writer out, int indent) {
+        this.in = in;
+        this.out = out;
+        this.indent = indent;
+    }
+
+    /**
+     * Formats the single JSON value that makes up the input.
+     */
+    public void format() throws IOException {
+        skipByteOrderMark();
+        int c = nextNonWhitespace();
+        if (c < 0) {
+            throw error("Empty input");
+        }
+        formatValue(c);
+
+        if (nextNonWhitespace() >= 0) {
+            throw error("Unexpected content after the JSON value");
+        }
+        flush();
+    }
+
+    /**
+     * Formats every value in the input, e.g. each line of an NDJSON file.
+     * Values are separated by a newline in the output, so compact output
+     * of NDJSON is NDJSON again.
+     *
+     * @return the number of values formatted
+     */
+    public long formatAll() throws IOException {
+        long count = 0;
+        skipByteOrderMark();
+        int c = nextNonWhitespace();
+        if (c < 0) {
+            throw error("Empty input");
+        }
+        while (c >= 0) {
+            if (count++ > 0) {
+                write('\n');
+            }
+            formatValue(c);
+            c = nextNonWhitespace();
+        }
+        flush();
+        return count;
+    }
+
+    // Writes one complete value, starting at its first character. Nested
+    // containers are handled by the loop rather than by recursion, so deep
+    // input cannot overflow the stack.
+    private void formatValue(int first) throws IOException {
+        int startDepth = depth;
+        openOrCopy(first);
+
+        while (depth > startDepth) {
+            int c = nextNonWhitespace();
+            int top = depth - 1;
+            boolean isObject = containers[top] == OBJECT;
+            char close = isObject ? '}' : ']';
+
+            if (c == close) {
+                depth--;
+                if (hasMembers[top]) {
+                    newLine(depth);
+                }
+                write(close);
+                continue;
+            }
+
+            if (hasMembers[top]) {
+                if (c != ',') {
+                    throw error(c < 0 ? "Unexpected end of input" : "Expected ',' or '" + close + "'");
+                }
+                write(',');
+                c = nextNonWhitespace();
+            }
+            hasMembers[top] = true;
+            newLine(depth);
+
+            if (isObject) {
+                if (c != '"') {
+                    throw error("Expected a string key");
+                }
+                copyString();
+                if (nextNonWhitespace() != ':') {
+                    throw error("Expected ':' after key");
+                }
+                write(':');
+                if (indent > 0) {
+                    write(' ');
+                }
+                c = nextNonWhitespace();
+            }
+
+            openOrCopy(c);
+        }
+    }
+
+    // Copies a scalar, or writes the bracket of a container and pushes it
+    private void openOrCopy(int c) throws IOException {
+        switch (c) {
+            case '{':
+                push(OBJECT);
+                write('{');
+                break;
+            case '[':
+                push(ARRAY);
+                write('[');
+                break;
+            case '"':
+                copyString();
+                break;
+            case 't':
+                copyLiteral("true");
+                break;
+            case 'f':
+                copyLiteral("false");
+                break;
+            case 'n':
+                copyLiteral("null");
+                break;
+            default:
+                if (c == '-' || isDigit(c)) {
+                    copyNumber(c);
+                    break;
+                }
+                throw error(c < 0 ? "Unexpected end of input" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void push(byte container) {
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+            hasMembers = Arrays.copyOf(hasMembers, depth * 2);
+        }
+        containers[depth] = container;
+        hasMembers[depth] = false;
+        depth++;
+    }
+
+    // The opening quote has been read
+    private void copyString() throws IOException {
+        write('"');
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                throw error("Unterminated string");
+            }
+            if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            write((char) c);
+
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case '"': case '\\': case '/': case 'b': case 'f': case 'n': case 'r': case 't':
+                        write((char) escaped);
+                        break;
+                    case 'u':
+                        write('u');
+                        for (int i = 0; i < 4; i++) {
+                            int hex = read();
+                            if (Character.digit(hex < 0 ? -1 : (char) hex, 16) < 0) {
+                                throw error("Invalid \\u escape");
+                            }
+                            write((char) hex);
+                        }
+                        break;
+                    default:
+                        throw error("Invalid escape in string");
+                }
+            }
+        }
+    }
+
+    // -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?, first character already read
+    private void copyNumber(int first) throws IOException {
+        int c = first;
+        if (c == '-') {
+            write('-');
+            c = read();
+        }
+        if (c == '0') {
+            write('0');
+        } else if (c >= '1' && c <= '9') {
+            write((char) c);
+            copyDigits();
+        } else {
+            throw error("Invalid number");
+        }
+
+        c = peek();
+        if (c == '.') {
+            write((char) read());
+            if (!isDigit(peek())) {
+                throw error("Expected a digit after '.'");
+            }
+            copyDigits();
+            c = peek();
+        }
+        if (c == 'e' || c == 'E') {
+            write((char) read());
+            c = peek();
+            if (c == '+' || c == '-') {
+                write((char) read());
+            }
+            if (!isDigit(peek())) {
+                throw error("Expected a digit in the exponent");
+            }
+            copyDigits();
+            c = peek();
+        }
+        if (isDigit(c) || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E') {
+            throw error("Invalid number");
+        }
+    }
+
+    private void copyDigits() throws IOException {
+        while (isDigit(peek())) {
+            write((char) read());
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void copyLiteral(String literal) throws IOException {
+        write(literal.charAt(0));
+        for (int i = 1; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("Expected '" + literal + "'");
+            }
+            write(literal.charAt(i));
+        }
+    }
+
+    // Text decoded without looking for one, e.g. a UTF-8 file read as UTF-8,
+    // still starts with it
+    private void skipByteOrderMark() throws IOException {
+        if (peek() == '\uFEFF') {
+            read();
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        offset++;
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private void newLine(int level) throws IOException {
+        if (indent <= 0) {
+            return;
+        }
+        write('\n');
+        for (int i = level * indent; i > 0; i--) {
+            write(' ');
+        }
+    }
+
+    private void write(char c) throws IOException {
+        if (outCount == outBuffer.length) {
+            out.write(outBuffer, 0, outCount);
+            outCount = 0;
+        }
+        outBuffer[outCount++] = c;
+    }
+
+    private void flush() throws IOException {
+        out.write(outBuffer, 0, outCount);
+        outCount = 0;
+        out.flush();
+    }
+
+    private IOException error(String message) throws IOException {
+        // Keep what was formatted so far, so the caller can see where it stopped
+        flush();
+        return new IOException("Invalid JSON data: " + message + " at character " + offset);
+    }
+}
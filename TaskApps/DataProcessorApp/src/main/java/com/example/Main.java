@@ -1,7 +1,28 @@
 package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
 public  class Main {
     public static void main(String[] args) {
 
+        // Main <file.xml|file.json> [output]: stream a file of any size
+        if (args.length > 0) {
+            try {
+                formatFile(Path.of(args[0]), args.length > 1 ? Path.of(args[1]) : null);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         String jsonData = "{\"name\":\"John\", \"age\":30, \"city\":\"New York\"}";
         String xmlData = "<person><name>John</name><age>30</age><city>New York</city></person>";
 
@@ -16,5 +37,39 @@ public  class Main {
         DataProcessor jsonProcessor = new JsonProcessor();
         String jsonResult = jsonProcessor.process(jsonData);
         System.out.println("Processed JSON:\n" + jsonResult);
+
+        // Arrays at the root and NDJSON (one value per line) work too
+        String ndjsonData = "{\"name\":\"John\"}\n{\"name\":\"Jane\"}";
+        DataProcessor compactJson = new JsonProcessor(0);
+        System.out.println("Processed NDJSON:\n" + compactJson.process(ndjsonData));
+        System.out.println("Processed JSON array:\n" + jsonProcessor.process("[1, [2, 3], {}]"));
+
+        // Mixed feed: the registry detects each payload's format, results keep input order
+        ProcessorRegistry registry = ProcessorRegistry.withDefaults();
+        List<String> results = registry.processAll(List.of(xmlData, jsonData, "[true, null]"));
+        System.out.println("Processed mixed batch:");
+        results.forEach(System.out::println);
+    }
+
+    // Picks the processor from the first bytes of the file; writes to stdout without an output path
+    private static void formatFile(Path input, Path output) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(input))) {
+            DataFormat format = DataFormat.detect(in);
+            if (format == null) {
+                throw new IOException("Unknown data format: " + input);
+            }
+            StreamingDataProcessor processor = format == DataFormat.XML
+                ? new XMLProcessor()
+                : new JsonProcessor();
+            formatStream(processor, in, output);
+        }
+    }
+
+    private static void formatStream(StreamingDataProcessor processor, InputStream in, Path output) throws IOException {
+        try (OutputStream out = output == null
+                ? new BufferedOutputStream(System.out)
+                : new BufferedOutputStream(Files.newOutputStream(output))) {
+            processor.process(in, out);
+        }
     }
-}
\ No newline at end of file
+}
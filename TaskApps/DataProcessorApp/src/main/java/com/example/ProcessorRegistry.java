@@ -0,0 +1,108 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Routes each payload to the {@link DataProcessor} registered for its
+ * format, detected with {@link DataFormat#detect(CharSequence)}, so callers
+ * with mixed XML and JSON feeds do not have to know the format up front.
+ *
+ * The registered processors are shared between threads, so they must be
+ * thread-safe, as XMLProcessor and JsonProcessor are.
+ */
+public class ProcessorRegistry implements DataProcessor {
+
+    private final Map<DataFormat, DataProcessor> processors = new ConcurrentHashMap<>();
+
+    /**
+     * A registry with XMLProcessor and JsonProcessor.
+     */
+    public static ProcessorRegistry withDefaults() {
+        return new ProcessorRegistry()
+            .register(DataFormat.XML, new XMLProcessor())
+            .register(DataFormat.JSON, new JsonProcessor());
+    }
+
+    /**
+     * Registers the processor for a format, replacing any earlier one.
+     *
+     * @return this registry, so registrations can be chained
+     */
+    public ProcessorRegistry register(DataFormat format, DataProcessor processor) {
+        processors.put(format, processor);
+        return this;
+    }
+
+    /**
+     * @return the processor for the payload's format, or null if the format
+     *         is not recognised or has no processor
+     */
+    public DataProcessor processorFor(String inputData) {
+        DataFormat format = DataFormat.detect(inputData);
+        return format == null ? null : processors.get(format);
+    }
+
+    /**
+     * Processes the payload with the processor for its format.
+     *
+     * @param inputData The XML or JSON data to be processed.
+     * @return The processed result, or an error message as the processors return.
+     */
+    @Override
+    public String process(String inputData) {
+        DataFormat format = DataFormat.detect(inputData);
+        if (format == null) {
+            return "Unknown data format";
+        }
+        DataProcessor processor = processors.get(format);
+        if (processor == null) {
+            return "No processor registered for " + format;
+        }
+        return processor.process(inputData);
+    }
+
+    /**
+     * Processes a batch on the common ForkJoinPool.
+     *
+     * @see #processAll(List, Executor)
+     */
+    public List<String> processAll(List<String> payloads) {
+        return processAll(payloads, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Processes the payloads concurrently on the executor and waits for all
+     * of them. Results are in the same order as the payloads, whichever
+     * finishes first. A processor that throws does not fail the batch: its
+     * payload gets an error message, as an unknown format does.
+     *
+     * @param payloads XML and JSON payloads, in any mix.
+     * @param executor Where the payloads are processed.
+     * @return One result per payload, in input order.
+     */
+    public List<String> processAll(List<String> payloads, Executor executor) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(payloads.size());
+        for (String payload : payloads) {
+            futures.add(CompletableFuture.supplyAsync(() -> process(payload), executor)
+                .exceptionally(ProcessorRegistry::failure));
+        }
+
+        List<String> results = new ArrayList<>(payloads.size());
+        for (CompletableFuture<String> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private static String failure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return "Processing failed: " + cause;
+    }
+}
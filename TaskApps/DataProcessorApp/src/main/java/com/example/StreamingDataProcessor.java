@@ -0,0 +1,44 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming counterpart of {@link DataProcessor} for inputs too large to
+ * hold in memory as a String. Implementations read the input once and write
+ * the result as they go, so memory use does not depend on the input size.
+ *
+ * The caller opens and closes the streams. Invalid input is reported with
+ * an IOException; whatever was written before the error stays written.
+ */
+public interface StreamingDataProcessor {
+
+    /**
+     * Processes character input, writing the result to {@code output}.
+     *
+     * @param input The data to be processed.
+     * @param output Where the processed result is written.
+     * @throws IOException If reading or writing fails, or the input is invalid.
+     */
+    void process(Reader input, Writer output) throws IOException;
+
+    /**
+     * Processes byte input, writing the result as UTF-8.
+     * By default the input is read as UTF-8 too.
+     *
+     * @param input The data to be processed.
+     * @param output Where the processed result is written.
+     * @throws IOException If reading or writing fails, or the input is invalid.
+     */
+    default void process(InputStream input, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        process(new InputStreamReader(input, StandardCharsets.UTF_8), writer);
+        writer.flush();
+    }
+}
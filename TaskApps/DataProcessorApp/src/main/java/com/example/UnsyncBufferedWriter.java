@@ -0,0 +1,70 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffer in front of a Writer, for writers that are fed a character or a
+ * short string at a time. Unlike BufferedWriter it takes no lock per call.
+ * Not thread-safe. close() only flushes; the caller closes the target.
+ */
+class UnsyncBufferedWriter extends Writer {
+
+    private final Writer out;
+    private final char[] buffer = new char[32 * 1024];
+    private int count;
+
+    UnsyncBufferedWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException {
+        if (len > buffer.length - count) {
+            flushBuffer();
+            if (len > buffer.length) {
+                out.write(chars, off, len);
+                return;
+            }
+        }
+        System.arraycopy(chars, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (len > buffer.length - count) {
+            flushBuffer();
+            if (len > buffer.length) {
+                out.write(str, off, len);
+                return;
+            }
+        }
+        str.getChars(off, off + len, buffer, count);
+        count += len;
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
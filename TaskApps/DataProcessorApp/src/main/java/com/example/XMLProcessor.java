@@ -1,23 +1,50 @@
 package com.example;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-public class XMLProcessor implements DataProcessor{
+import com.xmlvalidator.XmlSerializer;
+
+/**
+ * Safe to share between threads. The parser factories and the Transformer
+ * are not thread-safe, so each thread creates its own on first use and
+ * reuses them for every later call; see {@link XmlSerializer} for the
+ * Transformer side.
+ */
+public class XMLProcessor implements DataProcessor, StreamingDataProcessor {
+
+    private static final DocumentBuilderFactory BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+    private static final ThreadLocal<DocumentBuilder> BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            synchronized (BUILDER_FACTORY) {
+                return BUILDER_FACTORY.newDocumentBuilder();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create DocumentBuilder", e);
+        }
+    });
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+        ThreadLocal.withInitial(XMLInputFactory::newInstance);
+
     /**
      * Processes the input XML data and returns a formatted string.
      *
@@ -27,24 +54,59 @@ public class XMLProcessor implements DataProcessor{
     @Override
     public String process(String inputData) {
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new ByteArrayInputStream(inputData.getBytes(StandardCharsets.UTF_8)));
+            DocumentBuilder builder = BUILDER.get();
+            builder.reset();
+            // Parse the String as characters; no byte[] copy of the input
+            Document document = builder.parse(new InputSource(new StringReader(inputData)));
             document.getDocumentElement().normalize();
 
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            return XmlSerializer.toString(document, XmlSerializer.Preset.INDENT_NO_DECLARATION);
+        } catch (SAXException | IOException | TransformerException e) {
+            return "Invalid XML data: " + e.getMessage();
+        }
+    }
 
-            StringWriter writer = new StringWriter();
-            StreamResult result = new StreamResult(writer);
-            DOMSource source = new DOMSource(document);
-            transformer.transform(source, result);
+    /**
+     * Pretty-prints XML from a reader without building a tree.
+     *
+     * @param input The XML data to be processed.
+     * @param output Where the formatted XML is written.
+     * @throws IOException If the XML is not well-formed, or on a read or write error.
+     */
+    @Override
+    public void process(Reader input, Writer output) throws IOException {
+        try {
+            format(INPUT_FACTORY.get().createXMLStreamReader(input), output);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML data: " + e.getMessage(), e);
+        }
+    }
 
-            return writer.toString();
-        } catch (ParserConfigurationException | SAXException | IOException | TransformerException e) {
-            return "Invalid XML data: " + e.getMessage();
+    /**
+     * Pretty-prints XML from a stream without building a tree. The input
+     * encoding is taken from the XML declaration; the output is UTF-8.
+     *
+     * @param input The XML data to be processed.
+     * @param output Where the formatted XML is written.
+     * @throws IOException If the XML is not well-formed, or on a read or write error.
+     */
+    @Override
+    public void process(InputStream input, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        try {
+            format(INPUT_FACTORY.get().createXMLStreamReader(input), writer);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML data: " + e.getMessage(), e);
+        }
+    }
+
+    private void format(XMLStreamReader reader, Writer output) throws XMLStreamException, IOException {
+        Writer buffered = new UnsyncBufferedWriter(output);
+        try {
+            new XmlStreamFormatter(buffered, 4).format(reader);
+        } finally {
+            buffered.flush();
+            reader.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,292 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Re-indents XML from a StAX reader, one event at a time.
+ *
+ * Whitespace-only text between elements is dropped and replaced by
+ * indentation. An element that contains text keeps its content exactly as
+ * it was, so mixed content is not changed. The parser may hand one run of
+ * text over in several events, split at an entity or at its buffer's end,
+ * so a whitespace-only run is held back until the next event shows whether
+ * it starts text, and is never dropped piecemeal. A run with no line break
+ * between two child elements, as in {@code <b>x</b> <i>y</i>}, is kept as
+ * text as well. Nothing but the stack of open elements and the held-back
+ * whitespace is kept.
+ *
+ * The layout is close to, but not the same as, the indenting identity
+ * Transformer that {@link XMLProcessor#process(String)} uses:
+ * - an element holding only whitespace is written as {@code <a/>}; the
+ *   Transformer keeps the whitespace
+ * - mixed content stays on one line; the Transformer puts every text and
+ *   element child on a line of its own
+ * - CDATA sections come out as escaped text, as the JDK StAX reader reports
+ *   them as characters; the Transformer keeps them
+ * - whitespace between elements is replaced; the Transformer writes it out
+ *   next to its own indentation
+ * - in an element whose first text follows a child element, that child is
+ *   still indented, as the text has not been seen yet when it is written
+ */
+public class XmlStreamFormatter {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final Writer out;
+    private final int indent;
+
+    // Per open element: has it had child elements, has it had text
+    private boolean[] hasChildren = new boolean[32];
+    private boolean[] hasText = new boolean[32];
+    private int depth;
+
+    // A start tag stays open until we know whether the element is empty
+    private boolean startTagOpen;
+    private boolean wroteAnything;
+
+    // Whitespace-only text not yet known to be content or indentation
+    private final StringBuilder pendingSpace = new StringBuilder();
+
+    public XmlStreamFormatter(Writer out, int indent) {
+        this.out = out;
+        this.indent = indent;
+    }
+
+    public void format(XMLStreamReader reader) throws XMLStreamException, IOException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    pendingSpaceBeforeMarkup();
+                    startElement(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    pendingSpace.setLength(0);
+                    endElement(reader);
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    if (!reader.isWhiteSpace() || inText()) {
+                        writePendingSpace();
+                        text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    } else {
+                        pendingSpace.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.CDATA:
+                    writePendingSpace();
+                    closeStartTag();
+                    markText();
+                    out.write("<![CDATA[");
+                    out.write(reader.getText());
+                    out.write("]]>");
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    pendingSpaceBeforeMarkup();
+                    beginMarkup();
+                    out.write("<!--");
+                    out.write(reader.getText());
+                    out.write("-->");
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    pendingSpaceBeforeMarkup();
+                    beginMarkup();
+                    out.write("<?");
+                    out.write(reader.getPITarget());
+                    String data = reader.getPIData();
+                    if (data != null && !data.isEmpty()) {
+                        out.write(' ');
+                        out.write(data);
+                    }
+                    out.write("?>");
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    writePendingSpace();
+                    closeStartTag();
+                    markText();
+                    out.write('&');
+                    out.write(reader.getLocalName());
+                    out.write(';');
+                    break;
+                default:
+                    // The identity Transformer drops the XML declaration and DOCTYPE as well
+                    break;
+            }
+        }
+        out.write(NEW_LINE);
+        out.flush();
+    }
+
+    private void startElement(XMLStreamReader reader) throws IOException {
+        beginMarkup();
+
+        if (depth == hasChildren.length) {
+            hasChildren = Arrays.copyOf(hasChildren, depth * 2);
+            hasText = Arrays.copyOf(hasText, depth * 2);
+        }
+        hasChildren[depth] = false;
+        hasText[depth] = false;
+        depth++;
+
+        out.write('<');
+        writeName(reader.getPrefix(), reader.getLocalName());
+
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            out.write(prefix == null || prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix);
+            out.write("=\"");
+            escape(reader.getNamespaceURI(i), true);
+            out.write('"');
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            out.write(' ');
+            writeName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+            out.write("=\"");
+            escape(reader.getAttributeValue(i), true);
+            out.write('"');
+        }
+        startTagOpen = true;
+    }
+
+    private void endElement(XMLStreamReader reader) throws IOException {
+        depth--;
+        if (startTagOpen) {
+            out.write("/>");
+            startTagOpen = false;
+            return;
+        }
+        if (hasChildren[depth] && !hasText[depth]) {
+            newLine(depth);
+        }
+        out.write("</");
+        writeName(reader.getPrefix(), reader.getLocalName());
+        out.write('>');
+    }
+
+    private void text(char[] chars, int start, int length) throws IOException {
+        closeStartTag();
+        markText();
+        for (int i = start; i < start + length; i++) {
+            char c = chars[i];
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '\r':
+                    // A literal CR would be read back as a line feed
+                    out.write("&#13;");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    // Held-back whitespace followed by text is part of that text
+    private void writePendingSpace() throws IOException {
+        if (pendingSpace.length() > 0) {
+            String space = pendingSpace.toString();
+            pendingSpace.setLength(0);
+            text(space.toCharArray(), 0, space.length());
+        }
+    }
+
+    // Held-back whitespace followed by markup is indentation, unless it sits
+    // on one line after a child element, like the space in <b>x</b> <i>y</i>
+    private void pendingSpaceBeforeMarkup() throws IOException {
+        if (pendingSpace.length() == 0) {
+            return;
+        }
+        boolean afterChild = depth > 0 && hasChildren[depth - 1];
+        if (afterChild && pendingSpace.indexOf("\n") < 0 && pendingSpace.indexOf("\r") < 0) {
+            writePendingSpace();
+        } else {
+            pendingSpace.setLength(0);
+        }
+    }
+
+    // Start of an element, comment or PI: goes on its own line unless the
+    // parent holds text
+    private void beginMarkup() throws IOException {
+        closeStartTag();
+        if (depth > 0) {
+            hasChildren[depth - 1] = true;
+        }
+        if (!inText() && wroteAnything) {
+            newLine(depth);
+        }
+        wroteAnything = true;
+    }
+
+    private boolean inText() {
+        return depth > 0 && hasText[depth - 1];
+    }
+
+    private void markText() {
+        if (depth > 0) {
+            hasText[depth - 1] = true;
+        }
+    }
+
+    private void closeStartTag() throws IOException {
+        if (startTagOpen) {
+            out.write('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void writeName(String prefix, String localName) throws IOException {
+        if (prefix != null && !prefix.isEmpty()) {
+            out.write(prefix);
+            out.write(':');
+        }
+        out.write(localName);
+    }
+
+    private void escape(String value, boolean attribute) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '"':
+                    out.write(attribute ? "&quot;" : "\"");
+                    break;
+                // Written as references, or reading the value back would turn them into spaces
+                case '\n':
+                    out.write(attribute ? "&#10;" : "\n");
+                    break;
+                case '\r':
+                    out.write(attribute ? "&#13;" : "\r");
+                    break;
+                case '\t':
+                    out.write(attribute ? "&#9;" : "\t");
+                    break;
+                default:
+                    out.write(c);
+            }
+        }
+    }
+
+    private void newLine(int level) throws IOException {
+        out.write(NEW_LINE);
+        for (int i = level * indent; i > 0; i--) {
+            out.write(' ');
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class JsonProcessorTest {
+
+    private static final String JSON = "{\"name\": \"Zoë\", \"tags\": [\"a\"]}";
+    private static final String FORMATTED = "{\"name\":\"Zoë\",\"tags\":[\"a\"]}";
+
+    private final JsonProcessor processor = new JsonProcessor(0);
+
+    @Test
+    public void skipsByteOrderMarkInStrings() {
+        assertEquals(FORMATTED, processor.process("\uFEFF" + JSON));
+    }
+
+    // Detected and formatted the way Main does for a file
+    @Test
+    public void readsUnicodeEncodingsWithAndWithoutByteOrderMark() throws Exception {
+        for (String name : new String[] {"UTF-8", "UTF-16BE", "UTF-16LE", "UTF-32BE", "UTF-32LE"}) {
+            Charset charset = Charset.forName(name);
+            for (boolean bom : new boolean[] {true, false}) {
+                byte[] bytes = ((bom ? "\uFEFF" : "") + JSON).getBytes(charset);
+                InputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes));
+
+                assertEquals(name + (bom ? " with BOM" : ""), DataFormat.JSON, DataFormat.detect(in));
+                assertEquals(name + (bom ? " with BOM" : ""), FORMATTED, format(in));
+            }
+        }
+    }
+
+    // Fewer bytes than a byte order mark is long
+    @Test
+    public void readsShortInput() throws Exception {
+        assertEquals("1", format(new ByteArrayInputStream("1".getBytes(StandardCharsets.UTF_8))));
+        assertEquals("1", format(new ByteArrayInputStream("1".getBytes(StandardCharsets.UTF_16LE))));
+        assertEquals("12", format(new ByteArrayInputStream("12".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private String format(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(in, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonStreamFormatterTest {
+
+    @Test
+    public void formatsScalarsAtTheRoot() throws Exception {
+        assertEquals("\"s\"", format("  \"s\" ", 4));
+        assertEquals("-12.5e+3", format("-12.5e+3", 4));
+        assertEquals("0", format("0", 4));
+        assertEquals("true", format("true", 4));
+        assertEquals("false", format("false", 4));
+        assertEquals("null", format("\nnull\n", 4));
+    }
+
+    @Test
+    public void formatsArraysAtTheRoot() throws Exception {
+        assertEquals("[\n    1,\n    [],\n    {},\n    [\n        \"a\"\n    ]\n]", format("[1, [], {}, [\"a\"]]", 4));
+        assertEquals("[1,[],{},[\"a\"]]", format("[ 1 , [ ] , { } , [ \"a\" ] ]", 0));
+    }
+
+    // Keys in the order JSONObject's HashMap puts them, as it does not keep input order
+    @Test
+    public void matchesJsonObjectLayout() throws Exception {
+        String json = "{\"a\":{\"b\":[1,{\"c\":\"x\",\"d\":null},[2,3],[],{}],\"e\":false},\"f\":\"g\"}";
+
+        assertEquals(new JSONObject(json).toString(4), format(json, 4));
+        assertEquals(new JSONArray("[" + json + ",true]").toString(2), format("[" + json + ",true]", 2));
+    }
+
+    // org.json keeps an object with one member on one line; that needs the
+    // whole member in memory first, so here it is laid out like any other
+    @Test
+    public void splitsSingleMemberObjects() throws Exception {
+        assertEquals("{\"a\": [1]}", new JSONObject("{\"a\":[1]}").toString(4));
+        assertEquals("{\n    \"a\": [\n        1\n    ]\n}", format("{\"a\":[1]}", 4));
+    }
+
+    @Test
+    public void keepsKeyOrderAndNumbersAsWritten() throws Exception {
+        assertEquals("{\"z\":1.50,\"a\":1E2,\"m\":-0}", format("{\"z\": 1.50, \"a\": 1E2, \"m\": -0}", 0));
+    }
+
+    @Test
+    public void formatsEachNdjsonRecordOnItsOwnLine() throws Exception {
+        StringWriter out = new StringWriter();
+        long count = new JsonStreamFormatter(
+            new StringReader("{\"a\":1}\n{\"b\": [2]}\r\n\n\"s\"\n"), out, 0).formatAll();
+
+        assertEquals(3, count);
+        assertEquals("{\"a\":1}\n{\"b\":[2]}\n\"s\"", out.toString());
+    }
+
+    @Test
+    public void rejectsMoreThanOneValueInFormat() {
+        assertInvalid("{\"a\":1}\n{\"b\":2}", "Unexpected content after the JSON value");
+        assertInvalid("1 2", "Unexpected content after the JSON value");
+    }
+
+    @Test
+    public void rejectsEmptyInput() {
+        assertInvalid("", "Empty input");
+        assertInvalid(" \n\t", "Empty input");
+    }
+
+    @Test
+    public void rejectsInvalidNumbers() {
+        for (String number : new String[] {"01", "-", "-a", "1.", "1.e5", ".5", "+1", "1e", "1e+", "1.2.3", "1-2", "0x1"}) {
+            try {
+                format("[" + number + "]", 0);
+                fail("accepted " + number);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid JSON data: "));
+            }
+        }
+    }
+
+    @Test
+    public void copiesEscapesAsWritten() throws Exception {
+        String json = "\"q\\\" b\\\\ s\\/ \\b\\f\\n\\r\\t \\u00e9\\uD83D\\uDE00 é\"";
+        assertEquals(json, format(json, 4));
+    }
+
+    @Test
+    public void rejectsInvalidStrings() {
+        assertInvalid("\"a\\x\"", "Invalid escape in string");
+        assertInvalid("\"\\u12g4\"", "Invalid \\u escape");
+        assertInvalid("\"\\u12", "Invalid \\u escape");
+        assertInvalid("\"a\nb\"", "Control character in string");
+        assertInvalid("\"abc", "Unterminated string");
+        assertInvalid("{a:1}", "Expected a string key");
+    }
+
+    @Test
+    public void rejectsTrailingCommas() {
+        assertInvalid("[1,]", "Unexpected character ']'");
+        assertInvalid("{\"a\":1,}", "Expected a string key");
+        assertInvalid("[1 2]", "Expected ',' or ']'");
+        assertInvalid("{\"a\" 1}", "Expected ':' after key");
+        assertInvalid("[1,", "Unexpected end of input");
+        assertInvalid("{\"a\":1", "Unexpected end of input");
+    }
+
+    @Test
+    public void rejectsMisspelledLiterals() {
+        assertInvalid("tru", "Expected 'true'");
+        assertInvalid("nul1", "Expected 'null'");
+    }
+
+    // Far deeper than a recursive formatter could go on the default stack
+    @Test
+    public void formatsDeepNesting() throws Exception {
+        int depth = 200_000;
+        StringBuilder json = new StringBuilder(depth * 6);
+        for (int i = 0; i < depth; i++) {
+            json.append("{\"a\":[");
+        }
+        for (int i = 0; i < depth; i++) {
+            json.append("]}");
+        }
+
+        assertEquals(json.toString(), format(json.toString(), 0));
+        // Indented, the output grows with the square of the depth
+        String indented = format(json.substring(0, 6 * 2000) + json.substring(json.length() - 2 * 2000), 1);
+        assertTrue(indented.startsWith("{\n \"a\": [\n  {\n   \"a\": ["));
+        assertTrue(indented.endsWith("\n  }\n ]\n}"));
+    }
+
+    private static String format(String json, int indent) throws IOException {
+        StringWriter out = new StringWriter();
+        new JsonStreamFormatter(new StringReader(json), out, indent).format();
+        return out.toString();
+    }
+
+    private static void assertInvalid(String json, String message) {
+        try {
+            format(json, 4);
+            fail("accepted " + json);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Invalid JSON data: " + message));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ProcessorRegistryTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+    // XML payloads take longer, so later JSON payloads finish before them
+    @Test
+    public void keepsInputOrderForMixedBatch() {
+        XMLProcessor xml = new XMLProcessor();
+        ProcessorRegistry registry = new ProcessorRegistry()
+            .register(DataFormat.XML, data -> {
+                sleep(2);
+                return xml.process(data);
+            })
+            .register(DataFormat.JSON, new JsonProcessor(0));
+
+        List<String> payloads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            payloads.add(i % 3 == 0 ? "<r><i>" + i + "</i></r>" : "{\"i\": " + i + "}");
+        }
+
+        List<String> results = registry.processAll(payloads, executor);
+
+        assertEquals(payloads.size(), results.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            String result = results.get(i);
+            if (i % 3 == 0) {
+                assertTrue(result, result.startsWith("<r>") && result.contains("<i>" + i + "</i>"));
+            } else {
+                assertEquals("{\"i\":" + i + "}", result);
+            }
+        }
+    }
+
+    @Test
+    public void turnsProcessorExceptionIntoErrorResult() {
+        ProcessorRegistry registry = ProcessorRegistry.withDefaults()
+            .register(DataFormat.JSON, data -> {
+                if (data.contains("boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                return "ok";
+            });
+
+        List<String> results = registry.processAll(List.of("{}", "{\"boom\": 1}", "<r/>", "?"), executor);
+
+        assertEquals("ok", results.get(0));
+        assertEquals("Processing failed: java.lang.IllegalStateException: boom", results.get(1));
+        assertTrue(results.get(2), results.get(2).startsWith("<r/>"));
+        assertEquals("Unknown data format", results.get(3));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
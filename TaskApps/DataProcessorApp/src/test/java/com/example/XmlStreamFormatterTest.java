@@ -0,0 +1,104 @@
+package com.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+public class XmlStreamFormatterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    public void indentsNestedElements() throws Exception {
+        assertEquals("<r>" + NL + "    <a>" + NL + "        <b/>" + NL + "        <!--c-->" + NL + "    </a>"
+                + NL + "    <?pi x?>" + NL + "</r>" + NL,
+            format("<r>\n  <a><b/><!--c--></a><?pi x?></r>"));
+    }
+
+    @Test
+    public void keepsMixedContentOnOneLine() throws Exception {
+        assertEquals("<r>" + NL + "    <a>x<b>y</b>z</a>" + NL + "</r>" + NL,
+            format("<r><a>x<b>y</b>z</a></r>"));
+    }
+
+    @Test
+    public void writesWhitespaceOnlyElementAsEmpty() throws Exception {
+        assertEquals("<r>" + NL + "    <a/>" + NL + "</r>" + NL, format("<r><a>  </a></r>"));
+    }
+
+    @Test
+    public void writesCdataAsEscapedText() throws Exception {
+        assertEquals("<r>c&lt;d</r>" + NL, format("<r><![CDATA[c<d]]></r>"));
+    }
+
+    @Test
+    public void escapesMarkupCharacters() throws Exception {
+        assertEquals("<r a=\"&lt;&amp;&quot;'\">&lt;&amp;&gt;\"'</r>" + NL,
+            format("<r a='&lt;&amp;&quot;&apos;'>&lt;&amp;&gt;\"'</r>"));
+    }
+
+    @Test
+    public void keepsLineBreaksAndTabsInAttributes() throws Exception {
+        String formatted = format("<r a='x&#10;y&#13;z&#9;w'/>");
+
+        assertEquals("<r a=\"x&#10;y&#13;z&#9;w\"/>" + NL, formatted);
+        assertEquals("x\ny\rz\tw", parse(formatted).getDocumentElement().getAttribute("a"));
+    }
+
+    @Test
+    public void keepsCarriageReturnInText() throws Exception {
+        String formatted = format("<r>p&#13;q\nr\ts</r>");
+
+        assertEquals("<r>p&#13;q\nr\ts</r>" + NL, formatted);
+        assertEquals("p\rq\nr\ts", parse(formatted).getDocumentElement().getTextContent());
+    }
+
+    // The entity splits the text into several events, the first of them blank
+    @Test
+    public void keepsLeadingSpaceBeforeAnEntity() throws Exception {
+        assertEquals("<a>  &amp; b</a>" + NL, format("<a>  &amp; b</a>"));
+    }
+
+    // The parser hands a long run over in pieces, split where its buffer ends
+    @Test
+    public void keepsLongRunOfSpacesBeforeText() throws Exception {
+        String spaces = " ".repeat(20_000);
+        assertEquals("<a>" + spaces + "X</a>" + NL, format("<a>" + spaces + "X</a>"));
+    }
+
+    @Test
+    public void keepsSpaceBetweenInlineElements() throws Exception {
+        assertEquals("<p>" + NL + "    <b>x</b> <i>y</i> tail</p>" + NL, format("<p><b>x</b> <i>y</i> tail</p>"));
+    }
+
+    @Test
+    public void keepsNamespaces() throws Exception {
+        String formatted = format("<p:r xmlns:p='urn:p' xmlns='urn:d'><c p:a='1'/></p:r>");
+
+        Element child = (Element) parse(formatted).getDocumentElement().getElementsByTagName("c").item(0);
+        assertEquals("urn:d", child.getNamespaceURI());
+        assertEquals("1", child.getAttributeNS("urn:p", "a"));
+    }
+
+    private static String format(String xml) throws Exception {
+        StringWriter out = new StringWriter();
+        new XmlStreamFormatter(out, 4).format(XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml)));
+        return out.toString();
+    }
+
+    private static Document parse(String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,299 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DepartmentManager that can be shared by many threads.
+ *
+ * Reads take no locks: every map is a ConcurrentHashMap. Writers lock only
+ * the stripe of the employee id they change, so writes to different
+ * employees run in parallel, whatever their department.
+ *
+ * The id index is the source of truth. A department or name bucket may
+ * briefly hold an entry that is on its way in or out; readers skip any
+ * entry the id index does not point to. Replacing the id index entry is a
+ * single write, so an update or a move to another department is atomic:
+ * at any moment the employee is in its old department or its new one,
+ * never both and never neither. Changing an employee's id is the
+ * exception: for a moment both the old and the new id can be found.
+ *
+ * Head counts per department are kept as running totals, updated right
+ * after each change, so counting never looks at the employees. Listeners
+ * get each delta after the writer's lock is released; deltas made by
+ * different threads may arrive in either order, but the count each one
+ * carries is the department's count right after its own change.
+ *
+ * Unlike DepartmentManager, employees within a department come back in no
+ * particular order.
+ */
+public class ConcurrentDepartmentManager {
+    private static final int STRIPES = 64;
+
+    private final Map<String, Map<Integer, Employee>> departmentMap = new ConcurrentHashMap<>();
+    private final Map<Integer, Employee> byId = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idByNumber = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, Employee>> byName = new ConcurrentHashMap<>();
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private final List<DepartmentChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Object[] locks = new Object[STRIPES];
+
+    public ConcurrentDepartmentManager() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // A. Add a new employee
+    public void addEmployee(Employee employee) {
+        Objects.requireNonNull(employee, "Employee cannot be null");
+        requireFields(employee);
+        int id = employee.getEmployeeId();
+        long count;
+        synchronized (lockFor(id)) {
+            if (byId.containsKey(id)) {
+                throw new IllegalArgumentException("Employee id already exists: " + id);
+            }
+            claimNumber(employee);
+            addToBucket(departmentMap, employee.getDepartment(), employee);
+            addToBucket(byName, nameKey(employee.getName()), employee);
+            byId.put(id, employee);
+            count = adjustCount(employee.getDepartment(), 1);
+        }
+        fireCountChanged(employee.getDepartment(), 1, count);
+    }
+
+    // Get employee by id, number or name
+    public Optional<Employee> getEmployee(int employeeId) {
+        return Optional.ofNullable(byId.get(employeeId));
+    }
+
+    public Optional<Employee> getEmployee(String employeeNumber) {
+        Integer id = idByNumber.get(employeeNumber);
+        if (id == null) {
+            return Optional.empty();
+        }
+        // The number may be in the middle of moving to or from this id
+        Employee employee = byId.get(id);
+        return employee != null && employee.getEmployeeNumber().equals(employeeNumber)
+            ? Optional.of(employee)
+            : Optional.empty();
+    }
+
+    public List<Employee> getEmployeesByName(String name) {
+        // ConcurrentHashMap has no null key to look up
+        if (name == null) {
+            return new ArrayList<>();
+        }
+        return current(byName.get(nameKey(name))).collect(Collectors.toList());
+    }
+
+    public List<Employee> getEmployeesInDepartment(String department) {
+        return current(departmentMap.get(department)).collect(Collectors.toList());
+    }
+
+    // c. Update Employee Details
+    public boolean updateEmployee(int employeeId, Employee updatedEmployee) {
+        Objects.requireNonNull(updatedEmployee, "Employee cannot be null");
+        requireFields(updatedEmployee);
+        int newId = updatedEmployee.getEmployeeId();
+
+        // Lock both stripes, lower index first, so two updates cannot deadlock
+        int first = Math.min(stripe(employeeId), stripe(newId));
+        int second = Math.max(stripe(employeeId), stripe(newId));
+        Employee oldEmployee;
+        long oldCount;
+        long newCount;
+        synchronized (locks[first]) {
+            synchronized (locks[second]) {
+                oldEmployee = byId.get(employeeId);
+                if (oldEmployee == null) {
+                    return false;
+                }
+                if (newId != employeeId && byId.containsKey(newId)) {
+                    throw new IllegalArgumentException("Employee id already exists: " + newId);
+                }
+                String oldNumber = oldEmployee.getEmployeeNumber();
+                boolean numberChanged = !oldNumber.equals(updatedEmployee.getEmployeeNumber());
+                if (numberChanged) {
+                    claimNumber(updatedEmployee);
+                }
+
+                // Add the new entries, switch the id index over, then drop the old ones
+                addToBucket(departmentMap, updatedEmployee.getDepartment(), updatedEmployee);
+                addToBucket(byName, nameKey(updatedEmployee.getName()), updatedEmployee);
+                byId.put(newId, updatedEmployee);
+                if (newId != employeeId) {
+                    if (!numberChanged) {
+                        idByNumber.put(oldNumber, newId);
+                    }
+                    byId.remove(employeeId);
+                }
+
+                removeFromBucket(departmentMap, oldEmployee.getDepartment(), oldEmployee);
+                removeFromBucket(byName, nameKey(oldEmployee.getName()), oldEmployee);
+                if (numberChanged) {
+                    idByNumber.remove(oldNumber, employeeId);
+                }
+                if (oldEmployee.getDepartment().equals(updatedEmployee.getDepartment())) {
+                    return true;
+                }
+                oldCount = adjustCount(oldEmployee.getDepartment(), -1);
+                newCount = adjustCount(updatedEmployee.getDepartment(), 1);
+            }
+        }
+        fireCountChanged(oldEmployee.getDepartment(), -1, oldCount);
+        fireCountChanged(updatedEmployee.getDepartment(), 1, newCount);
+        return true;
+    }
+
+    // d. Delete Employee
+    public boolean deleteEmployee(int employeeId) {
+        Employee employee;
+        long count;
+        synchronized (lockFor(employeeId)) {
+            employee = byId.remove(employeeId);
+            if (employee == null) {
+                return false;
+            }
+            removeFromBucket(departmentMap, employee.getDepartment(), employee);
+            removeFromBucket(byName, nameKey(employee.getName()), employee);
+            idByNumber.remove(employee.getEmployeeNumber(), employeeId);
+            count = adjustCount(employee.getDepartment(), -1);
+        }
+        fireCountChanged(employee.getDepartment(), -1, count);
+        return true;
+    }
+
+    // Subscribe to head count changes
+    public void addChangeListener(DepartmentChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    public void removeChangeListener(DepartmentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // e. Display Employees grouped by department
+    public void displayEmployeesByDepartment() {
+        departmentMap.forEach((dept, employees) -> {
+            System.out.println("\nDepartment: " + dept);
+            current(employees).forEach(System.out::println);
+        });
+    }
+
+    // f. Display Employees ordered by property
+    public void displayEmployeesOrderedBy(Comparator<Employee> comparator, boolean ascending) {
+        Comparator<Employee> comp = ascending ? comparator : comparator.reversed();
+
+        byId.values().stream()
+            .sorted(comp)
+            .forEach(System.out::println);
+    }
+
+    // g. Display Employees filtered by property
+    public void displayEmployeesFilteredBy(Predicate<Employee> predicate) {
+        byId.values().stream()
+            .filter(predicate)
+            .forEach(System.out::println);
+    }
+
+    // h. Count Employees
+    public Map<String, Long> getEmployeeCountByDepartment() {
+        return new HashMap<>(counts);
+    }
+
+    public long getTotalEmployeeCount() {
+        return byId.size();
+    }
+
+    public List<Employee> getAllEmployees() {
+        return new ArrayList<>(byId.values());
+    }
+
+    // The entries of a bucket that the id index still points to
+    private Stream<Employee> current(Map<Integer, Employee> bucket) {
+        if (bucket == null) {
+            return Stream.empty();
+        }
+        return bucket.values().stream()
+            .filter(e -> byId.get(e.getEmployeeId()) == e);
+    }
+
+    // Adds delta to the department's running count and returns the new
+    // count; a department whose count reaches 0 is dropped
+    private long adjustCount(String department, int delta) {
+        Long count = counts.compute(department, (k, current) -> {
+            long updated = (current == null ? 0 : current) + delta;
+            return updated == 0 ? null : updated;
+        });
+        return count == null ? 0 : count;
+    }
+
+    private void fireCountChanged(String department, int delta, long count) {
+        for (DepartmentChangeListener listener : listeners) {
+            listener.countChanged(department, delta, count);
+        }
+    }
+
+    // Checked before the number is claimed, so a bad employee cannot leave
+    // it reserved or sit half indexed; no map here takes a null key anyway
+    private static void requireFields(Employee employee) {
+        Objects.requireNonNull(employee.getEmployeeNumber(), "Employee number cannot be null");
+        Objects.requireNonNull(employee.getName(), "Employee name cannot be null");
+        Objects.requireNonNull(employee.getDepartment(), "Department cannot be null");
+    }
+
+    // Reserves the employee's number for its id, or fails if another id has it
+    private void claimNumber(Employee employee) {
+        Integer owner = idByNumber.putIfAbsent(employee.getEmployeeNumber(), employee.getEmployeeId());
+        if (owner != null && owner != employee.getEmployeeId()) {
+            throw new IllegalArgumentException("Employee number already exists: " + employee.getEmployeeNumber());
+        }
+    }
+
+    // Buckets are created and dropped inside compute, so an add cannot land
+    // in a bucket that a concurrent remove has just dropped as empty
+    private static void addToBucket(Map<String, Map<Integer, Employee>> buckets, String key, Employee employee) {
+        buckets.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = new ConcurrentHashMap<>();
+            }
+            bucket.put(employee.getEmployeeId(), employee);
+            return bucket;
+        });
+    }
+
+    private static void removeFromBucket(Map<String, Map<Integer, Employee>> buckets, String key, Employee employee) {
+        buckets.computeIfPresent(key, (k, bucket) -> {
+            // By identity: Employee.equals would match the record replacing this one
+            bucket.computeIfPresent(employee.getEmployeeId(), (id, current) -> current == employee ? null : current);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private Object lockFor(int employeeId) {
+        return locks[stripe(employeeId)];
+    }
+
+    private static int stripe(int employeeId) {
+        // Spread the bits so consecutive ids do not share a stripe pattern
+        int h = employeeId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    // Case-folded name, so lookups ignore case like equalsIgnoreCase
+    private static String nameKey(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+}
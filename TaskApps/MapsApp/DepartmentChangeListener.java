@@ -0,0 +1,19 @@
+/**
+ * Receives the change in a department's head count whenever an employee
+ * is added to it or leaves it, whether by delete or by moving to another
+ * department. A move sends two deltas: -1 for the old department and +1
+ * for the new one. Updates that keep the department send nothing.
+ *
+ * Listeners are called on the thread that made the change, after the
+ * change is visible, so they should return quickly.
+ */
+@FunctionalInterface
+public interface DepartmentChangeListener {
+
+    /**
+     * @param department the department whose head count changed
+     * @param delta +1 or -1
+     * @param count the head count after this change; 0 when the department is gone
+     */
+    void countChanged(String department, int delta, long count);
+}
@@ -1,18 +1,36 @@
 import java.util.ArrayList;
 import java.util.Comparator;
 import  java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class DepartmentManager{
-    private final Map<String, List<Employee>> departmentMap;
+    // Department -> employees by id, in the order they were added.
+    // Keyed by id so an employee can be removed or replaced in O(1).
+    private final Map<String, Map<Integer, Employee>> departmentMap;
+
+    // Indexes for point lookups, updated on every add, update and delete.
+    // Employee's setters do not change its fields, so an indexed employee
+    // cannot go stale behind our back.
+    private final Map<Integer, Employee> byId;
+    private final Map<String, Employee> byNumber;
+    private final Map<String, Map<Integer, Employee>> byName;
+
+    // Copied on write, so a listener may unsubscribe while being called
+    private final List<DepartmentChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     public DepartmentManager(){
         this.departmentMap = new HashMap<>();
+        this.byId = new HashMap<>();
+        this.byNumber = new HashMap<>();
+        this.byName = new HashMap<>();
     }
 
 
@@ -20,75 +38,153 @@ public class DepartmentManager{
     public void addEmployee(Employee employee){
         // require non null
         Objects.requireNonNull(employee, "Employee cannot be null");
-        
-        departmentMap.computeIfAbsent(employee.getDepartment(), 
-            k-> new ArrayList<>())
-                .add(employee);
+        requireFields(employee);
+        if (byId.containsKey(employee.getEmployeeId())) {
+            throw new IllegalArgumentException("Employee id already exists: " + employee.getEmployeeId());
+        }
+        if (byNumber.containsKey(employee.getEmployeeNumber())) {
+            throw new IllegalArgumentException("Employee number already exists: " + employee.getEmployeeNumber());
+        }
+        index(employee);
+        fireCountChanged(employee.getDepartment(), 1);
     }
 
     // Get employee - search by any property
     public Optional<Employee> getEmployeer(int employeeId){
-        return departmentMap.values().stream()
-                    .flatMap(List::stream)
-                    .filter(e -> e.getEmployeeId() == employeeId)
-                    .findFirst();
+        return getEmployee(employeeId);
     }
 
     public Optional<Employee> getEmployee(String employeeNumber) {
-        return departmentMap.values().stream()
-                .flatMap(List::stream)
-                .filter(e -> e.getEmployeeNumber().equals(employeeNumber))
-                .findFirst();
+        return Optional.ofNullable(byNumber.get(employeeNumber));
     }
 
     public List<Employee> getEmployeesByName(String name) {
-        return departmentMap.values().stream()
-                .flatMap(List::stream)
-                .filter(e -> e.getName().equalsIgnoreCase(name))
-                .collect(Collectors.toList());
+        Map<Integer, Employee> employees = byName.get(nameKey(name));
+        return employees == null ? new ArrayList<>() : new ArrayList<>(employees.values());
     }
 
     // c. Update Employee Details
     public boolean updateEmployee(int employeeId, Employee updatedEmployee) {
-        Optional<Employee> existing = getEmployee(employeeId);
-        if (existing.isPresent()) {
-            Employee oldEmployee = existing.get();
-            
-            // Remove from old department if department changed
+        Objects.requireNonNull(updatedEmployee, "Employee cannot be null");
+        requireFields(updatedEmployee);
+        Employee oldEmployee = byId.get(employeeId);
+        if (oldEmployee == null) {
+            return false;
+        }
+
+        // The new id and number may not belong to some other employee
+        Employee idOwner = byId.get(updatedEmployee.getEmployeeId());
+        if (idOwner != null && idOwner != oldEmployee) {
+            throw new IllegalArgumentException("Employee id already exists: " + updatedEmployee.getEmployeeId());
+        }
+        Employee numberOwner = byNumber.get(updatedEmployee.getEmployeeNumber());
+        if (numberOwner != null && numberOwner != oldEmployee) {
+            throw new IllegalArgumentException("Employee number already exists: " + updatedEmployee.getEmployeeNumber());
+        }
+
+        if (oldEmployee.getDepartment().equals(updatedEmployee.getDepartment())
+                && oldEmployee.getEmployeeId() == updatedEmployee.getEmployeeId()) {
+            // Update in place, keeping the employee's position in the department
+            unindexLookups(oldEmployee);
+            departmentMap.get(oldEmployee.getDepartment()).put(employeeId, updatedEmployee);
+            indexLookups(updatedEmployee);
+        } else {
+            unindex(oldEmployee);
+            index(updatedEmployee);
             if (!oldEmployee.getDepartment().equals(updatedEmployee.getDepartment())) {
-                departmentMap.get(oldEmployee.getDepartment()).remove(oldEmployee);
-                addEmployee(updatedEmployee);
-            } else {
-                // Update in place
-                int index = departmentMap.get(oldEmployee.getDepartment()).indexOf(oldEmployee);
-                departmentMap.get(oldEmployee.getDepartment()).set(index, updatedEmployee);
+                fireCountChanged(oldEmployee.getDepartment(), -1);
+                fireCountChanged(updatedEmployee.getDepartment(), 1);
             }
-            return true;
         }
-        return false;
+        return true;
     }
 
     // d. Delete Employee
     public boolean deleteEmployee(int employeeId) {
-        Optional<Employee> employee = getEmployee(employeeId);
-        if (employee.isPresent()) {
-            String department = employee.get().getDepartment();
-            boolean removed = departmentMap.get(department).remove(employee.get());
-            
-            // Remove department if empty
-            if (departmentMap.get(department).isEmpty()) {
-                departmentMap.remove(department);
-            }
-            return removed;
+        Employee employee = byId.get(employeeId);
+        if (employee == null) {
+            return false;
         }
-        return false;
+        unindex(employee);
+        fireCountChanged(employee.getDepartment(), -1);
+        return true;
+    }
+
+    // Subscribe to head count changes
+    public void addChangeListener(DepartmentChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+
+    public void removeChangeListener(DepartmentChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void index(Employee employee) {
+        departmentMap.computeIfAbsent(employee.getDepartment(),
+            k-> new LinkedHashMap<>())
+                .put(employee.getEmployeeId(), employee);
+        indexLookups(employee);
+    }
+
+    private void unindex(Employee employee) {
+        String department = employee.getDepartment();
+        Map<Integer, Employee> employees = departmentMap.get(department);
+        employees.remove(employee.getEmployeeId());
+
+        // Remove department if empty
+        if (employees.isEmpty()) {
+            departmentMap.remove(department);
+        }
+        unindexLookups(employee);
+    }
+
+    private void fireCountChanged(String department, int delta) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Map<Integer, Employee> employees = departmentMap.get(department);
+        long count = employees == null ? 0 : employees.size();
+        for (DepartmentChangeListener listener : listeners) {
+            listener.countChanged(department, delta, count);
+        }
+    }
+
+    private void indexLookups(Employee employee) {
+        byId.put(employee.getEmployeeId(), employee);
+        byNumber.put(employee.getEmployeeNumber(), employee);
+        byName.computeIfAbsent(nameKey(employee.getName()), k -> new LinkedHashMap<>())
+            .put(employee.getEmployeeId(), employee);
+    }
+
+    private void unindexLookups(Employee employee) {
+        byId.remove(employee.getEmployeeId());
+        byNumber.remove(employee.getEmployeeNumber());
+
+        String key = nameKey(employee.getName());
+        Map<Integer, Employee> sameName = byName.get(key);
+        sameName.remove(employee.getEmployeeId());
+        if (sameName.isEmpty()) {
+            byName.remove(key);
+        }
+    }
+
+    // Checked before anything is changed, so a bad employee is never half indexed
+    private static void requireFields(Employee employee) {
+        Objects.requireNonNull(employee.getEmployeeNumber(), "Employee number cannot be null");
+        Objects.requireNonNull(employee.getName(), "Employee name cannot be null");
+        Objects.requireNonNull(employee.getDepartment(), "Department cannot be null");
+    }
+
+    // Case-folded name, so lookups ignore case like equalsIgnoreCase
+    private static String nameKey(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
     }
 
     // e. Display Employees grouped by department
     public void displayEmployeesByDepartment() {
         departmentMap.forEach((dept, employees) -> {
             System.out.println("\nDepartment: " + dept);
-            employees.forEach(System.out::println);
+            employees.values().forEach(System.out::println);
         });
     }
 
@@ -97,7 +193,7 @@ public class DepartmentManager{
         Comparator<Employee> comp = ascending ? comparator : comparator.reversed();
         
         departmentMap.values().stream()
-            .flatMap(List::stream)
+            .flatMap(employees -> employees.values().stream())
             .sorted(comp)
             .forEach(System.out::println);
     }
@@ -105,12 +201,14 @@ public class DepartmentManager{
     // g. Display Employees filtered by property
     public void displayEmployeesFilteredBy(Predicate<Employee> predicate) {
         departmentMap.values().stream()
-            .flatMap(List::stream)
+            .flatMap(employees -> employees.values().stream())
             .filter(predicate)
             .forEach(System.out::println);
     }
 
     // h. Count Employees
+    // Each department map knows its own size, so these never look at the
+    // employees themselves: O(departments) and O(1)
     public Map<String, Long> getEmployeeCountByDepartment() {
         return departmentMap.entrySet().stream()
             .collect(Collectors.toMap(
@@ -120,23 +218,18 @@ public class DepartmentManager{
     }
 
     public long getTotalEmployeeCount() {
-        return departmentMap.values().stream()
-            .mapToLong(List::size)
-            .sum();
+        return byId.size();
     }
 
     // Utility method to get all employees
     public List<Employee> getAllEmployees() {
         return departmentMap.values().stream()
-            .flatMap(List::stream)
+            .flatMap(employees -> employees.values().stream())
             .collect(Collectors.toList());
     }
 
     // Get employee by Id
     public Optional<Employee> getEmployee(int employeeId){
-        return  departmentMap.values().stream()
-                .flatMap(List::stream)
-                .filter(e -> e.getEmployeeId() == employeeId)
-                .findFirst();
+        return Optional.ofNullable(byId.get(employeeId));
     }
 }
@@ -0,0 +1,254 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress and throughput test for ConcurrentDepartmentManager.
+ *
+ * Stress: writer threads add, update, move and delete employees while
+ * reader threads check that an employee being moved back and forth between
+ * two departments is always found, in exactly one of them. At the end
+ * every index must agree with the id index, and the deltas a change
+ * listener received must add up to the running head counts.
+ *
+ * Throughput: the same mixed workload against ConcurrentDepartmentManager
+ * and against DepartmentManager behind one global lock.
+ *
+ * Usage: java DepartmentManagerStressTest [threads] [seconds]
+ */
+public class DepartmentManagerStressTest {
+
+    private static final String[] DEPARTMENTS = {"IT", "HR", "Finance", "Sales", "Legal", "Ops", "R&D", "Support"};
+    private static final int IDS_PER_THREAD = 10_000;
+    private static final int MOVER_ID = -1;
+
+    // The operations the throughput run needs from either manager
+    interface Manager {
+        void add(Employee employee);
+        boolean update(int id, Employee employee);
+        boolean delete(int id);
+        Optional<Employee> get(int id);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        stress(threads, seconds);
+
+        // On one core the stripes only add overhead, so only a run on
+        // several cores says anything about the gain
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("\nThroughput, mixed reads and writes (ops/s), " + cores + " core(s):");
+        if (cores == 1) {
+            System.out.println("  (one core: threads take turns, so expect no gain from lock-free reads)");
+        }
+        for (int t = 1; t <= threads; t *= 2) {
+            ConcurrentDepartmentManager concurrent = new ConcurrentDepartmentManager();
+            DepartmentManager locked = new DepartmentManager();
+            long concurrentOps = throughput(t, seconds, concurrentManager(concurrent));
+            long lockedOps = throughput(t, seconds, lockedManager(locked));
+            System.out.printf("  %2d threads: concurrent %,12d   global lock %,12d%n",
+                t, concurrentOps / seconds, lockedOps / seconds);
+        }
+    }
+
+    private static void stress(int threads, int seconds) throws InterruptedException {
+        ConcurrentDepartmentManager manager = new ConcurrentDepartmentManager();
+        Map<String, Long> deltaTotals = new ConcurrentHashMap<>();
+        manager.addChangeListener((department, delta, count) -> deltaTotals.merge(department, (long) delta, Long::sum));
+        manager.addEmployee(new Employee(MOVER_ID, "MOVER", "Mover", "IT"));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong failures = new AtomicLong();
+        AtomicLong moves = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+
+        // One thread moves the same employee between IT and HR
+        workers.add(new Thread(() -> {
+            boolean inIt = true;
+            while (running.get()) {
+                inIt = !inIt;
+                manager.updateEmployee(MOVER_ID, new Employee(MOVER_ID, "MOVER", "Mover", inIt ? "IT" : "HR"));
+                moves.incrementAndGet();
+            }
+        }));
+
+        // Readers: the mover must always be found, by id and by number,
+        // and be listed exactly once in the department its current record
+        // names, so never in both departments and never in neither
+        for (int r = 0; r < Math.max(1, threads / 2); r++) {
+            workers.add(new Thread(() -> {
+                while (running.get()) {
+                    Optional<Employee> byId = manager.getEmployee(MOVER_ID);
+                    Optional<Employee> byNumber = manager.getEmployee("MOVER");
+                    if (byId.isEmpty() || byNumber.isEmpty()) {
+                        failures.incrementAndGet();
+                        continue;
+                    }
+                    Employee record = byId.get();
+                    long listed = manager.getEmployeesInDepartment(record.getDepartment()).stream()
+                        .filter(e -> e.getEmployeeId() == MOVER_ID)
+                        .count();
+                    // Every move makes a new record, so if the id still points
+                    // to this one the listing was taken while it was current.
+                    // Otherwise it moved on in between: try again.
+                    if (manager.getEmployee(MOVER_ID).orElse(null) != record) {
+                        continue;
+                    }
+                    if (listed != 1) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        // Writers: each owns a range of ids and churns through it
+        for (int w = 0; w < threads; w++) {
+            int base = w * IDS_PER_THREAD;
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    int id = base + random.nextInt(IDS_PER_THREAD);
+                    Employee employee = randomEmployee(id, random);
+                    try {
+                        if (manager.getEmployee(id).isPresent()) {
+                            if (random.nextInt(4) == 0) {
+                                manager.deleteEmployee(id);
+                            } else {
+                                manager.updateEmployee(id, employee);
+                            }
+                        } else {
+                            manager.addEmployee(employee);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        // Only this thread writes these ids and numbers
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        workers.forEach(Thread::start);
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        failures.addAndGet(checkConsistency(manager));
+        deltaTotals.values().removeIf(total -> total == 0);
+        if (!deltaTotals.equals(manager.getEmployeeCountByDepartment())) {
+            failures.incrementAndGet();
+        }
+        System.out.println("Stress: " + manager.getTotalEmployeeCount() + " employees, "
+            + moves.get() + " moves, " + failures.get() + " failures");
+        if (failures.get() > 0) {
+            throw new AssertionError(failures.get() + " consistency failures");
+        }
+    }
+
+    // Every index agrees with the id index once the writers have stopped
+    private static long checkConsistency(ConcurrentDepartmentManager manager) {
+        long failures = 0;
+        long listed = 0;
+        for (Map.Entry<String, Long> count : manager.getEmployeeCountByDepartment().entrySet()) {
+            List<Employee> employees = manager.getEmployeesInDepartment(count.getKey());
+            listed += employees.size();
+            if (employees.size() != count.getValue()) {
+                failures++;
+            }
+        }
+        if (listed != manager.getTotalEmployeeCount()) {
+            failures++;
+        }
+        for (Employee employee : manager.getAllEmployees()) {
+            if (manager.getEmployee(employee.getEmployeeNumber()).orElse(null) != employee
+                    || !manager.getEmployeesInDepartment(employee.getDepartment()).contains(employee)
+                    || !manager.getEmployeesByName(employee.getName()).contains(employee)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static long throughput(int threads, int seconds, Manager manager) throws InterruptedException {
+        // Half full before timing starts, so updates and deletes find employees
+        for (int i = 0; i < threads * IDS_PER_THREAD; i += 2) {
+            manager.add(randomEmployee(i, ThreadLocalRandom.current()));
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong operations = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            int base = w * IDS_PER_THREAD;
+            workers.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    int id = base + random.nextInt(IDS_PER_THREAD);
+                    // 80% reads, 20% writes
+                    if (random.nextInt(5) > 0) {
+                        manager.get(id);
+                    } else if (manager.get(id).isPresent()) {
+                        if (random.nextBoolean()) {
+                            manager.delete(id);
+                        } else {
+                            manager.update(id, randomEmployee(id, random));
+                        }
+                    } else {
+                        manager.add(randomEmployee(id, random));
+                    }
+                    done++;
+                }
+                operations.addAndGet(done);
+            }));
+        }
+
+        workers.forEach(Thread::start);
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.get();
+    }
+
+    private static Employee randomEmployee(int id, ThreadLocalRandom random) {
+        return new Employee(id, "E" + id, "Name " + random.nextInt(500),
+            DEPARTMENTS[random.nextInt(DEPARTMENTS.length)]);
+    }
+
+    private static Manager concurrentManager(ConcurrentDepartmentManager manager) {
+        return new Manager() {
+            public void add(Employee employee) { manager.addEmployee(employee); }
+            public boolean update(int id, Employee employee) { return manager.updateEmployee(id, employee); }
+            public boolean delete(int id) { return manager.deleteEmployee(id); }
+            public Optional<Employee> get(int id) { return manager.getEmployee(id); }
+        };
+    }
+
+    private static Manager lockedManager(DepartmentManager manager) {
+        Object lock = new Object();
+        return new Manager() {
+            public void add(Employee employee) { synchronized (lock) { manager.addEmployee(employee); } }
+            public boolean update(int id, Employee employee) { synchronized (lock) { return manager.updateEmployee(id, employee); } }
+            public boolean delete(int id) { synchronized (lock) { return manager.deleteEmployee(id); } }
+            public Optional<Employee> get(int id) { synchronized (lock) { return manager.getEmployee(id); } }
+        };
+    }
+}
@@ -15,6 +15,10 @@ public class Main {
         Optional<Employee> emp = manager.getEmployee(2);
         emp.ifPresent(e -> System.out.println("Found: " + e));
 
+        // Report head count changes from here on
+        manager.addChangeListener((dept, delta, count) ->
+            System.out.println(dept + (delta > 0 ? " +" : " ") + delta + " -> " + count));
+
         // c. Update employee
         manager.updateEmployee(3, new Employee(3, "E102", "Robert Johnson", "IT"));
 
@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Runs the SignatoriesApp tasks over every dictionary in a directory (or
+ * matching a glob such as dictionaries/*.xml) on a bounded worker pool.
+ *
+ * Each worker thread keeps its own DocumentBuilder, StAX factories and
+ * XPath cache, and saving goes through XmlSerializer, so nothing is set up
+ * once per file.
+ * The printing tasks (a and c) are left out here, since output from many
+ * files at once is not readable; the count is reported per file instead.
+ *
+ * Usage: java BatchRunner <input dir | glob> <output dir> [threads] [dom|xpath|stax]
+ */
+public class BatchRunner {
+
+    private static final String[] RESTRICTED_ELEMENTS = {
+        "RESTRICTED_ACCESS_NATIONALITIES_MATCH_TYPE",
+        "MAX_RESTRICTED_ACCESS_NATIONALITIES",
+        "RESTRICTED_ACCESS_NATIONALITIES"
+    };
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create DocumentBuilder", e);
+        }
+    });
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY =
+        ThreadLocal.withInitial(XMLInputFactory::newInstance);
+    private static final ThreadLocal<XMLOutputFactory> OUTPUT_FACTORY =
+        ThreadLocal.withInitial(XMLOutputFactory::newInstance);
+    private static final ThreadLocal<XMLEventFactory> EVENT_FACTORY =
+        ThreadLocal.withInitial(XMLEventFactory::newInstance);
+
+    private static final String USAGE =
+        "Usage: java BatchRunner <input dir | glob> <output dir> [threads] [dom|xpath|stax]";
+
+    private final Path outputDir;
+    private final int threads;
+    private final String mode;
+
+    public BatchRunner(Path outputDir, int threads, String mode) {
+        this.outputDir = outputDir;
+        this.threads = threads;
+        this.mode = mode;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args.length > 2) {
+            try {
+                threads = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                threads = 0;
+            }
+            if (threads < 1) {
+                System.err.println("Threads must be a positive number, got: " + args[2]);
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+        String mode = args.length > 3 ? args[3] : "dom";
+
+        try {
+            List<Path> inputs = findInputs(args[0]);
+            Path outputDir = Path.of(args[1]);
+            Files.createDirectories(outputDir);
+
+            new BatchRunner(outputDir, threads, mode).run(inputs);
+        } catch (Exception e) {
+            System.err.println("Error processing batch: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // A directory means all *.xml files in it; anything else is treated as a glob
+    // over the file names of its parent directory.
+    static List<Path> findInputs(String input) throws IOException {
+        Path path = Path.of(input);
+        Path dir;
+        String glob;
+
+        if (Files.isDirectory(path)) {
+            dir = path;
+            glob = "*.xml";
+        } else {
+            dir = path.getParent() == null ? Path.of(".") : path.getParent();
+            glob = path.getFileName().toString();
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    inputs.add(file);
+                }
+            }
+        }
+        inputs.sort(null);
+        return inputs;
+    }
+
+    public void run(List<Path> inputs) throws Exception {
+        System.out.println("Processing " + inputs.size() + " files with " + threads + " threads (" + mode + ")");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        List<Future<Long>> results = new ArrayList<>();
+        for (Path input : inputs) {
+            results.add(pool.submit(() -> processFile(input)));
+        }
+
+        long bytes = 0;
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                bytes += results.get(i).get();
+            } catch (Exception e) {
+                failed++;
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                System.err.println("Failed: " + inputs.get(i) + " - " + cause.getMessage());
+            }
+        }
+
+        pool.shutdown();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int succeeded = inputs.size() - failed;
+        System.out.printf("Done: %d succeeded, %d failed in %.2f s%n", succeeded, failed, seconds);
+        System.out.printf("Throughput: %.1f files/sec, %.2f MB/sec%n",
+            succeeded / seconds, bytes / (1024.0 * 1024.0) / seconds);
+    }
+
+    // Returns the size of the input so the caller can report MB/sec.
+    private long processFile(Path input) throws Exception {
+        Path output = outputDir.resolve(input.getFileName());
+        int tableBased;
+
+        switch (mode) {
+            case "xpath": {
+                XmlProcessor processor = new XpathXmlProcessor(
+                    input, resetBuilder(), XPathCache.shared());
+                tableBased = processor.countTableBasedElements();
+                processor.removeRestrictedElements();
+                processor.updateMandatoryToOptional();
+                processor.saveDocument(output);
+                break;
+            }
+            case "stax": {
+                // Saving first lets the count come from the same pass
+                XmlProcessor processor = new StaxXmlProcessor(
+                    input, INPUT_FACTORY.get(), OUTPUT_FACTORY.get(), EVENT_FACTORY.get());
+                processor.removeRestrictedElements();
+                processor.updateMandatoryToOptional();
+                processor.saveDocument(output);
+                tableBased = processor.countTableBasedElements();
+                break;
+            }
+            default: {
+                DomXmlProcessor processor = new DomXmlProcessor(input, resetBuilder());
+                ElementRules.Counter counter = ElementRules.countFieldType("TABLE_BASED");
+                processor.applyRules(new ElementRuleEngine()
+                    .register(counter)
+                    .register(ElementRules.removeByTagName(RESTRICTED_ELEMENTS))
+                    .register(ElementRules.updateAttribute("use", "MANDATORY", "OPTIONAL")));
+                tableBased = counter.getCount();
+                processor.saveDocument(output);
+                break;
+            }
+        }
+
+        System.out.println(input.getFileName() + ": TABLE_BASED count " + tableBased);
+        return Files.size(input);
+    }
+
+    private static DocumentBuilder resetBuilder() {
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+        builder.reset();
+        return builder;
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Lookup tables over a parsed document, built in one pass:
+ * tag name -> elements, and attribute name -> value -> elements.
+ *
+ * Elements are always listed in document order, also after an attribute
+ * change moves one to another value: each element gets its position in the
+ * build pass, and the sets an element can join later are sorted by it.
+ * Attribute values are listed in the order they were first seen. The index
+ * does not watch the tree, so code that mutates the document must go
+ * through it, as a {@link DomMutator}, to keep it in step. Elements added
+ * to the tree after the build are never indexed.
+ */
+public class DocumentIndex implements DomMutator {
+
+    private final Map<String, Set<Element>> byTagName = new HashMap<>();
+    private final Map<String, Map<String, Set<Element>>> byAttribute = new HashMap<>();
+    // Attribute name -> elements that have it, whatever the value
+    private final Map<String, Set<Element>> withAttribute = new HashMap<>();
+
+    // Element -> its place in document order, from the build pass
+    private final Map<Element, Integer> positions = new IdentityHashMap<>();
+    private final Comparator<Element> documentOrder = Comparator.comparingInt(positions::get);
+
+    private DocumentIndex() {
+    }
+
+    public static DocumentIndex build(Document doc) {
+        DocumentIndex index = new DocumentIndex();
+        index.addSubtree(doc.getDocumentElement());
+        return index;
+    }
+
+    // Returned lists are snapshots, so callers may mutate the tree while iterating.
+    public List<Element> getElementsByTagName(String tagName) {
+        return snapshot(byTagName.get(tagName));
+    }
+
+    public List<Element> getElementsByAttribute(String attrName, String value) {
+        Map<String, Set<Element>> values = byAttribute.get(attrName);
+        return snapshot(values == null ? null : values.get(value));
+    }
+
+    // Every element that has the attribute, in document order
+    public List<Element> getElementsWithAttribute(String attrName) {
+        return snapshot(withAttribute.get(attrName));
+    }
+
+    public Set<String> getAttributeValues(String attrName) {
+        Map<String, Set<Element>> values = byAttribute.get(attrName);
+        return values == null ? Collections.emptySet() : Collections.unmodifiableSet(values.keySet());
+    }
+
+    // Detach the element from its parent and drop it and its descendants from the index.
+    @Override
+    public void remove(Element element) {
+        removeSubtree(element);
+        Node parent = element.getParentNode();
+        if (parent != null) {
+            parent.removeChild(element);
+        }
+    }
+
+    // Elements that are not indexed, e.g. inside a removed subtree, are only updated
+    @Override
+    public void setAttribute(Element element, String attrName, String value) {
+        if (!isIndexed(element)) {
+            element.setAttribute(attrName, value);
+            return;
+        }
+        if (element.hasAttribute(attrName)) {
+            unindexAttribute(element, attrName, element.getAttribute(attrName));
+        }
+        element.setAttribute(attrName, value);
+        indexAttribute(element, attrName, value);
+    }
+
+    private boolean isIndexed(Element element) {
+        Set<Element> tagged = byTagName.get(element.getTagName());
+        return tagged != null && positions.containsKey(element) && tagged.contains(element);
+    }
+
+    private void addSubtree(Element element) {
+        positions.put(element, positions.size());
+        // Only ever filled here, in document order, so insertion order will do
+        byTagName.computeIfAbsent(element.getTagName(), k -> new LinkedHashSet<>()).add(element);
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            indexAttribute(element, attr.getName(), attr.getValue());
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                addSubtree((Element) child);
+            }
+        }
+    }
+
+    private void removeSubtree(Element element) {
+        Set<Element> tagged = byTagName.get(element.getTagName());
+        if (tagged != null) {
+            tagged.remove(element);
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            unindexAttribute(element, attr.getName(), attr.getValue());
+            Set<Element> having = withAttribute.get(attr.getName());
+            if (having != null) {
+                having.remove(element);
+            }
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                removeSubtree((Element) child);
+            }
+        }
+    }
+
+    private void indexAttribute(Element element, String attrName, String value) {
+        byAttribute.computeIfAbsent(attrName, k -> new LinkedHashMap<>())
+            .computeIfAbsent(value, k -> new TreeSet<>(documentOrder))
+            .add(element);
+        withAttribute.computeIfAbsent(attrName, k -> new TreeSet<>(documentOrder)).add(element);
+    }
+
+    private void unindexAttribute(Element element, String attrName, String value) {
+        Map<String, Set<Element>> values = byAttribute.get(attrName);
+        if (values == null) {
+            return;
+        }
+        Set<Element> elements = values.get(value);
+        if (elements != null) {
+            elements.remove(element);
+            if (elements.isEmpty()) {
+                values.remove(value);
+            }
+        }
+    }
+
+    private static List<Element> snapshot(Set<Element> elements) {
+        return elements == null ? Collections.emptyList() : new ArrayList<>(elements);
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Collects removals and attribute updates and applies them together.
+ *
+ * {@link #apply(Document)} first walks the tree once and records every
+ * target in a plain list, then applies the changes from that snapshot.
+ * Nothing is removed while a live NodeList is being iterated, so no match
+ * is skipped and the parser never has to recompute a list.
+ */
+public class DomMutationBatch {
+
+    private final Set<String> tagsToRemove = new HashSet<>();
+    private final List<String[]> attributeUpdates = new ArrayList<>();
+
+    public DomMutationBatch removeByTagName(String... tagNames) {
+        tagsToRemove.addAll(Arrays.asList(tagNames));
+        return this;
+    }
+
+    public DomMutationBatch replaceAttributeValue(String attrName, String oldValue, String newValue) {
+        attributeUpdates.add(new String[] {attrName, oldValue, newValue});
+        return this;
+    }
+
+    // Returns the number of elements removed plus the number of attributes changed.
+    // Elements inside a removed subtree are not counted or updated.
+    public int apply(Document doc) {
+        return apply(doc, DomMutator.DIRECT);
+    }
+
+    // Same, making the changes through the mutator, e.g. a DocumentIndex
+    public int apply(Document doc, DomMutator mutator) {
+        List<Element> removals = new ArrayList<>();
+        List<Element> updates = new ArrayList<>();
+        List<String[]> updateSpecs = new ArrayList<>();
+
+        collect(doc.getDocumentElement(), removals, updates, updateSpecs);
+
+        for (int i = 0; i < updates.size(); i++) {
+            String[] spec = updateSpecs.get(i);
+            mutator.setAttribute(updates.get(i), spec[0], spec[2]);
+        }
+
+        for (Element element : removals) {
+            mutator.remove(element);
+        }
+
+        return removals.size() + updates.size();
+    }
+
+    private void collect(Element element, List<Element> removals,
+                         List<Element> updates, List<String[]> updateSpecs) {
+        if (tagsToRemove.contains(element.getTagName())) {
+            removals.add(element);
+            return;
+        }
+
+        for (String[] spec : attributeUpdates) {
+            if (spec[1].equals(element.getAttribute(spec[0]))) {
+                updates.add(element);
+                updateSpecs.add(spec);
+            }
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                collect((Element) child, removals, updates, updateSpecs);
+            }
+        }
+    }
+}
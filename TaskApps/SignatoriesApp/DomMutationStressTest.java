@@ -0,0 +1,134 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Stress check for {@link DomMutationBatch}: a document with tens of
+ * thousands of adjacent restricted elements must lose all of them, and
+ * every MANDATORY outside them must become OPTIONAL. Exits with status 1
+ * on the first failed check.
+ *
+ * Usage: java DomMutationStressTest [restrictedPerTag]
+ */
+public class DomMutationStressTest {
+
+    private static final String[] RESTRICTED_ELEMENTS = {
+        "RESTRICTED_ACCESS_NATIONALITIES_MATCH_TYPE",
+        "MAX_RESTRICTED_ACCESS_NATIONALITIES",
+        "RESTRICTED_ACCESS_NATIONALITIES"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int perTag = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int restricted = perTag * RESTRICTED_ELEMENTS.length;
+
+        // Batch on an in-memory document
+        Document doc = buildDocument(perTag);
+        long start = System.nanoTime();
+        int affected = new DomMutationBatch()
+            .removeByTagName(RESTRICTED_ELEMENTS)
+            .replaceAttributeValue("use", "MANDATORY", "OPTIONAL")
+            .apply(doc);
+        double batchMs = (System.nanoTime() - start) / 1e6;
+
+        check(affected == restricted + perTag, "affected count " + affected + ", expected " + (restricted + perTag));
+        checkClean(doc, perTag);
+        System.out.printf("Batch: removed %d elements and updated %d attributes in %.1f ms%n",
+            restricted, perTag, batchMs);
+
+        // Same document through DomXmlProcessor, with and without the index
+        Path input = Files.createTempFile("restricted", ".xml");
+        Path output = Files.createTempFile("restricted-out", ".xml");
+        try {
+            TransformerFactory.newInstance().newTransformer()
+                .transform(new DOMSource(buildDocument(perTag)), new StreamResult(input.toFile()));
+
+            for (boolean indexed : new boolean[] {false, true}) {
+                DomXmlProcessor processor = new DomXmlProcessor(input);
+                if (indexed) {
+                    processor.buildIndex();
+                }
+
+                start = System.nanoTime();
+                processor.removeRestrictedElements();
+                processor.updateMandatoryToOptional();
+                double processorMs = (System.nanoTime() - start) / 1e6;
+
+                processor.saveDocument(output);
+                checkClean(DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(output.toFile()), perTag);
+                System.out.printf("DomXmlProcessor%s: tasks d and e in %.1f ms%n",
+                    indexed ? " (indexed)" : "", processorMs);
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+
+        System.out.println("All checks passed");
+    }
+
+    private static void checkClean(Document doc, int perTag) {
+        for (String tagName : RESTRICTED_ELEMENTS) {
+            int left = doc.getElementsByTagName(tagName).getLength();
+            check(left == 0, left + " " + tagName + " elements left");
+        }
+
+        int mandatory = 0;
+        int optional = 0;
+        NodeList items = doc.getElementsByTagName("item");
+        for (int i = 0; i < items.getLength(); i++) {
+            String use = ((Element) items.item(i)).getAttribute("use");
+            if ("MANDATORY".equals(use)) {
+                mandatory++;
+            } else if ("OPTIONAL".equals(use)) {
+                optional++;
+            }
+        }
+        check(mandatory == 0, mandatory + " MANDATORY attributes left");
+        check(optional == perTag * 2, optional + " OPTIONAL attributes, expected " + perTag * 2);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+
+    // Each item holds one element of every restricted tag side by side, which is
+    // exactly the layout that made the live-NodeList loop skip matches. Restricted
+    // elements carry use="MANDATORY" too, which must not be counted once removed.
+    private static Document buildDocument(int perTag) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("item");
+        doc.appendChild(root);
+
+        for (int i = 0; i < perTag; i++) {
+            Element item = doc.createElement("item");
+            item.setAttribute("tag_name", "FIELD_" + i);
+            item.setAttribute("use", "MANDATORY");
+
+            for (String tagName : RESTRICTED_ELEMENTS) {
+                Element restricted = doc.createElement(tagName);
+                restricted.setAttribute("use", "MANDATORY");
+                item.appendChild(restricted);
+            }
+
+            Element optional = doc.createElement("item");
+            optional.setAttribute("use", "OPTIONAL");
+            item.appendChild(optional);
+
+            root.appendChild(item);
+        }
+
+        return doc;
+    }
+}
@@ -0,0 +1,30 @@
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * The changes rules and mutation batches make to a tree. They go through a
+ * mutator rather than straight to the DOM, so that a {@link DocumentIndex}
+ * over the tree can follow each change instead of being rebuilt.
+ */
+public interface DomMutator {
+
+    // Changes the DOM only, for trees without an index
+    DomMutator DIRECT = new DomMutator() {
+        @Override
+        public void remove(Element element) {
+            Node parent = element.getParentNode();
+            if (parent != null) {
+                parent.removeChild(element);
+            }
+        }
+
+        @Override
+        public void setAttribute(Element element, String attrName, String value) {
+            element.setAttribute(attrName, value);
+        }
+    };
+
+    void remove(Element element);
+
+    void setAttribute(Element element, String attrName, String value);
+}
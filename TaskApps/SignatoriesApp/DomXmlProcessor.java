@@ -1,26 +1,47 @@
 
+import java.io.InputStream;
 import java.nio.file.Path;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 
 //Which is better? Importing all or importing one by one?
 
 import org.w3c.dom.*;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import com.xmlvalidator.MappedXmlInput;
+import com.xmlvalidator.XmlSerializer;
 
 public class DomXmlProcessor implements  XmlProcessor {
     private final Document doc;
+    private DocumentIndex index;
 
      public DomXmlProcessor(Path xmlFilePath) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        this.doc = builder.parse(xmlFilePath.toFile());
+        this(xmlFilePath, DocumentBuilderFactory.newInstance().newDocumentBuilder());
+    }
+
+    // For callers that pool their builders (see BatchRunner)
+    public DomXmlProcessor(Path xmlFilePath, DocumentBuilder builder) throws Exception {
+        try (InputStream in = MappedXmlInput.openStream(xmlFilePath)) {
+            this.doc = builder.parse(MappedXmlInput.inputSource(in, xmlFilePath));
+        }
+    }
+
+    // For a document that is already parsed, e.g. by XMLValidatorApp's
+    // ValidatingParser, which validates while parsing so the file is read once
+    public DomXmlProcessor(Document doc) {
+        this.doc = doc;
+    }
+
+    // Optional: index tags and attributes once, then answer every task from it
+    public DocumentIndex buildIndex(){
+        this.index = DocumentIndex.build(doc);
+        return index;
+    }
+
+    public DocumentIndex getIndex(){
+        return index;
     }
 
     // Task a.
@@ -28,6 +49,15 @@ public class DomXmlProcessor implements  XmlProcessor {
     @Override
     public void printApiBasedElements(){
         System.out.println("API_BASED elements by the tag_name(DOM: )");
+        if (index != null) {
+            for (Element element : index.getElementsByAttribute("field_type", "API_BASED")) {
+                String tagName = element.getAttribute("tag_name");
+                if (!tagName.isEmpty()) {
+                    System.out.println(tagName);
+                }
+            }
+            return;
+        }
         traverseElementsforApiBased(doc.getDocumentElement());
     }
 
@@ -54,6 +84,9 @@ public class DomXmlProcessor implements  XmlProcessor {
     // Task b. Count TABLR_BASED elements
     @Override
     public int countTableBasedElements(){
+        if (index != null) {
+            return index.getElementsByAttribute("field_type", "TABLE_BASED").size();
+        }
         return  countElementsByFieldType(
             doc.getDocumentElement(), "TABLE_BASED");
     }
@@ -81,6 +114,18 @@ public class DomXmlProcessor implements  XmlProcessor {
     public void printDuplicateCheckElements(){
         System.out.println("Elements with duplicate checking: ");
 
+        if (index != null) {
+            // Any case of "true", in document order like the tree walk
+            for (Element element : index.getElementsWithAttribute("check_duplicates")) {
+                if ("true".equalsIgnoreCase(element.getAttribute("check_duplicates"))) {
+                    System.out.print("Element: " + element.getAttribute("tag_name") + " - Fields:");
+                    printFieldNames(element);
+                    System.out.println();
+                }
+            }
+            return;
+        }
+
         findDuplicateCheckElements(doc.getDocumentElement());
     }
 
@@ -121,56 +166,55 @@ public class DomXmlProcessor implements  XmlProcessor {
         String [] elementsToRemove ={
             "RESTRICTED_ACCESS_NATIONALITIES_MATCH_TYPE",
             "MAX_RESTRICTED_ACCESS_NATIONALITIES",
-            "RESTICTED_ACCESS_NATIONALITIES"
+            "RESTRICTED_ACCESS_NATIONALITIES"
         };
 
-        for (String tagName: elementsToRemove){
-            removeElementByTagName(tagName);
+        if (index != null) {
+            for (String tagName: elementsToRemove){
+                for (Element element : index.getElementsByTagName(tagName)) {
+                    index.remove(element);
+                }
+            }
+            return;
         }
-    }
 
-    private void removeElementByTagName(String tagName){
-        NodeList nodes = doc.getElementsByTagName(tagName);
-        for (int i = 0; i < nodes.getLength(); i++) {
-            Node node = nodes.item(i);
-            node.getParentNode().removeChild(node);
-        }
+        // Removing from a live getElementsByTagName list skips every other match,
+        // so collect all targets first and remove them in one sweep
+        new DomMutationBatch().removeByTagName(elementsToRemove).apply(doc);
     }
 
     // Task e. Update Mandatory to Optional (CAPS INTENDED)
     // (Amazing Music : https://youtu.be/EnPeMwO-iio)
     @Override
     public void updateMandatoryToOptional(){
-        updateAttributeValues(doc.getDocumentElement(), "use", "MANDATORY", "OPTIONAL");
-
-    }
-    
-    private void updateAttributeValues(Node node, String attrName, String oldValue, String newValue){
-        if (node.getNodeType() == Node.ELEMENT_NODE){
-            Element element =(Element) node;
-            
-            if(oldValue.equals(element.getAttribute(attrName))){
-                element.setAttribute(attrName, newValue);
+        if (index != null) {
+            for (Element element : index.getElementsByAttribute("use", "MANDATORY")) {
+                index.setAttribute(element, "use", "OPTIONAL");
             }
+            return;
         }
+        new DomMutationBatch().replaceAttributeValue("use", "MANDATORY", "OPTIONAL").apply(doc);
+    }
 
-        NodeList children = node.getChildNodes();
-        for (int i = 0; i < children.getLength(); i++) {
-            updateAttributeValues(children.item(i), attrName, oldValue, newValue);
-        }
+    // Run every registered rule in one traversal of the document.
+    // Changes go through the index, if there is one, so it stays current.
+    public void applyRules(ElementRuleEngine engine){
+        engine.run(doc, mutator());
+    }
+
+    // Apply a batch of removals and attribute updates; returns the number of nodes affected
+    public int applyMutations(DomMutationBatch batch){
+        return batch.apply(doc, mutator());
+    }
+
+    private DomMutator mutator(){
+        return index != null ? index : DomMutator.DIRECT;
     }
 
     // Implement this later
 
     @Override
     public void saveDocument(Path outputPath) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-
-        Transformer transformer = transformerFactory.newTransformer();
-        
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(outputPath.toFile());
-
-        transformer.transform(source, result);
+        XmlSerializer.writeDirect(doc, outputPath);
     }
 }
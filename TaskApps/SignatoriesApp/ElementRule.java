@@ -0,0 +1,47 @@
+import java.util.Collection;
+import java.util.Collections;
+
+import org.w3c.dom.Element;
+
+/**
+ * A match-and-action pair that {@link ElementRuleEngine} evaluates against
+ * every element it visits. Several rules can share one traversal.
+ */
+public interface ElementRule {
+
+    // keyAttribute() value for rules keyed on the element's tag name; '#'
+    // cannot start an attribute name, so it never clashes with one
+    String TAG_NAME = "#tag";
+
+    boolean matches(Element element);
+
+    // May remove the element from its parent; other rules and the element's
+    // children are still visited, so every rule sees the document as parsed.
+    void apply(Element element);
+
+    // Rules that change the tree override this and make their changes
+    // through the mutator, so an index over the tree follows them.
+    default void apply(Element element, DomMutator mutator) {
+        apply(element);
+    }
+
+    // Called once the element's subtree has been visited, for each rule that
+    // was applied to it, so a rule can tell when a matched element ends.
+    default void exit(Element element) {
+    }
+
+    /**
+     * Optional. A rule that matches exactly the elements whose attribute
+     * {@code keyAttribute()} (or tag name, for {@link #TAG_NAME}) is one of
+     * {@link #keyValues()} can say so; the engine then finds it with a map
+     * lookup instead of calling matches() on every element, so adding such
+     * rules does not add work per element. null means not keyed.
+     */
+    default String keyAttribute() {
+        return null;
+    }
+
+    default Collection<String> keyValues() {
+        return Collections.emptySet();
+    }
+}
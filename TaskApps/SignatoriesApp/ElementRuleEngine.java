@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Runs any number of {@link ElementRule}s over a document in one
+ * depth-first traversal, instead of one full-tree walk per task.
+ *
+ * Rules that declare a key are looked up by the value of their attribute,
+ * so each element costs one attribute read per distinct key attribute, not
+ * one match test per rule. The other rules are tried on every element.
+ * Either way, the rules that match an element are applied in registration
+ * order. A rule that removes an element does not hide it or its subtree
+ * from the other rules, so the result is the same as running the tasks
+ * one after another in registration order, with removals last.
+ */
+public class ElementRuleEngine {
+
+    private final List<Registered> unkeyed = new ArrayList<>();
+    // Key attribute -> attribute value -> rules, each list in registration order
+    private final Map<String, Map<String, List<Registered>>> keyed = new HashMap<>();
+    private int registered;
+
+    // Reused while matching one element; applying never recurses
+    private final List<Registered> candidates = new ArrayList<>();
+
+    public ElementRuleEngine register(ElementRule rule) {
+        Registered entry = new Registered(rule, registered++);
+        String attribute = rule.keyAttribute();
+        if (attribute == null) {
+            unkeyed.add(entry);
+        } else {
+            Map<String, List<Registered>> byValue = keyed.computeIfAbsent(attribute, k -> new HashMap<>());
+            for (String value : rule.keyValues()) {
+                byValue.computeIfAbsent(value, k -> new ArrayList<>()).add(entry);
+            }
+        }
+        return this;
+    }
+
+    public void run(Document doc) {
+        run(doc, DomMutator.DIRECT);
+    }
+
+    // Changes made by the rules go through the mutator
+    public void run(Document doc, DomMutator mutator) {
+        visit(doc.getDocumentElement(), mutator);
+    }
+
+    private void visit(Element element, DomMutator mutator) {
+        List<ElementRule> applied = null;
+        for (Registered entry : match(element)) {
+            entry.rule.apply(element, mutator);
+            if (applied == null) {
+                applied = new ArrayList<>(2);
+            }
+            applied.add(entry.rule);
+        }
+
+        // Take the next sibling before visiting, since a rule may detach the child.
+        Node child = element.getFirstChild();
+        while (child != null) {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                visit((Element) child, mutator);
+            }
+            child = next;
+        }
+
+        if (applied != null) {
+            for (int i = applied.size() - 1; i >= 0; i--) {
+                applied.get(i).exit(element);
+            }
+        }
+    }
+
+    // The rules matching the element, in registration order
+    private List<Registered> match(Element element) {
+        candidates.clear();
+        for (Map.Entry<String, Map<String, List<Registered>>> key : keyed.entrySet()) {
+            String value = ElementRule.TAG_NAME.equals(key.getKey())
+                ? element.getTagName()
+                : element.getAttribute(key.getKey());
+            List<Registered> rules = key.getValue().get(value);
+            if (rules != null) {
+                candidates.addAll(rules);
+            }
+        }
+        for (Registered entry : unkeyed) {
+            if (entry.rule.matches(element)) {
+                candidates.add(entry);
+            }
+        }
+
+        // Usually zero or one match; insertion sort restores registration order
+        for (int i = 1; i < candidates.size(); i++) {
+            Registered entry = candidates.get(i);
+            int j = i - 1;
+            while (j >= 0 && candidates.get(j).order > entry.order) {
+                candidates.set(j + 1, candidates.get(j));
+                j--;
+            }
+            candidates.set(j + 1, entry);
+        }
+        return candidates;
+    }
+
+    private static final class Registered {
+        private final ElementRule rule;
+        private final int order;
+
+        private Registered(ElementRule rule, int order) {
+            this.rule = rule;
+            this.order = order;
+        }
+    }
+}
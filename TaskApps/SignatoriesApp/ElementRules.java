@@ -0,0 +1,234 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.w3c.dom.Element;
+
+/**
+ * Ready-made rules for the SignatoriesApp tasks, so they can all be
+ * registered on one {@link ElementRuleEngine} and run in a single pass.
+ * The reporting rules collect their results rather than print them, so the
+ * caller can print each task's output in one piece after the pass.
+ */
+public final class ElementRules {
+
+    private ElementRules() {
+    }
+
+    // Task a. Read the tag names with getTagNames() after the engine has run.
+    public static TagNames collectTagNames(String fieldType) {
+        return new TagNames(fieldType);
+    }
+
+    public static final class TagNames implements ElementRule {
+        private final String fieldType;
+        private final List<String> tagNames = new ArrayList<>();
+
+        private TagNames(String fieldType) {
+            this.fieldType = fieldType;
+        }
+
+        @Override
+        public boolean matches(Element element) {
+            return fieldType.equals(element.getAttribute("field_type"));
+        }
+
+        @Override
+        public void apply(Element element) {
+            String tagName = element.getAttribute("tag_name");
+            if (!tagName.isEmpty()) {
+                tagNames.add(tagName);
+            }
+        }
+
+        @Override
+        public String keyAttribute() {
+            return "field_type";
+        }
+
+        @Override
+        public Collection<String> keyValues() {
+            return Collections.singleton(fieldType);
+        }
+
+        public List<String> getTagNames() {
+            return tagNames;
+        }
+    }
+
+    // Task b. Read the result with getCount() after the engine has run.
+    public static Counter countFieldType(String fieldType) {
+        return new Counter(fieldType);
+    }
+
+    public static final class Counter implements ElementRule {
+        private final String fieldType;
+        private int count;
+
+        private Counter(String fieldType) {
+            this.fieldType = fieldType;
+        }
+
+        @Override
+        public boolean matches(Element element) {
+            return fieldType.equals(element.getAttribute("field_type"));
+        }
+
+        @Override
+        public void apply(Element element) {
+            count++;
+        }
+
+        @Override
+        public String keyAttribute() {
+            return "field_type";
+        }
+
+        @Override
+        public Collection<String> keyValues() {
+            return Collections.singleton(fieldType);
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    // Task c. Read the lines with getLines() after the engine has run.
+    public static DuplicateChecks collectDuplicateChecks() {
+        return new DuplicateChecks();
+    }
+
+    /**
+     * Collects, for each element with check_duplicates="true", the names of
+     * its field descendants, during the engine's own traversal rather than
+     * with a getElementsByTagName walk per match. Matches can nest, so each
+     * open match keeps its own names; lines come out in document order, as
+     * the DOM task prints them.
+     */
+    public static final class DuplicateChecks implements ElementRule {
+        private final List<String> lines = new ArrayList<>();
+        // Open matches innermost first, and all unfinished matches in document order
+        private final Deque<Check> open = new ArrayDeque<>();
+        private final Deque<Check> unfinished = new ArrayDeque<>();
+
+        private DuplicateChecks() {
+        }
+
+        @Override
+        public boolean matches(Element element) {
+            return "true".equalsIgnoreCase(element.getAttribute("check_duplicates"))
+                || (!open.isEmpty() && "field".equals(element.getTagName()));
+        }
+
+        @Override
+        public void apply(Element element) {
+            // A match's own tag is not one of its descendants
+            if (!open.isEmpty() && "field".equals(element.getTagName())) {
+                String name = element.getAttribute("name");
+                for (Check check : open) {
+                    check.fields.append(name).append(' ');
+                }
+            }
+            if ("true".equalsIgnoreCase(element.getAttribute("check_duplicates"))) {
+                Check check = new Check(element);
+                open.push(check);
+                unfinished.addLast(check);
+            }
+        }
+
+        @Override
+        public void exit(Element element) {
+            if (open.isEmpty() || open.peek().element != element) {
+                return;
+            }
+            open.pop().finished = true;
+            // An outer match is reported before the inner ones it contains
+            while (!unfinished.isEmpty() && unfinished.peekFirst().finished) {
+                Check check = unfinished.removeFirst();
+                lines.add("Element: " + check.element.getAttribute("tag_name") + " - Fields:" + check.fields);
+            }
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        private static final class Check {
+            private final Element element;
+            private final StringBuilder fields = new StringBuilder();
+            private boolean finished;
+
+            private Check(Element element) {
+                this.element = element;
+            }
+        }
+    }
+
+    // Task d.
+    public static ElementRule removeByTagName(String... tagNames) {
+        Set<String> names = new HashSet<>(Arrays.asList(tagNames));
+        return new ElementRule() {
+            @Override
+            public boolean matches(Element element) {
+                return names.contains(element.getTagName());
+            }
+
+            @Override
+            public void apply(Element element) {
+                apply(element, DomMutator.DIRECT);
+            }
+
+            @Override
+            public void apply(Element element, DomMutator mutator) {
+                mutator.remove(element);
+            }
+
+            @Override
+            public String keyAttribute() {
+                return TAG_NAME;
+            }
+
+            @Override
+            public Collection<String> keyValues() {
+                return names;
+            }
+        };
+    }
+
+    // Task e.
+    public static ElementRule updateAttribute(String attrName, String oldValue, String newValue) {
+        return new ElementRule() {
+            @Override
+            public boolean matches(Element element) {
+                return oldValue.equals(element.getAttribute(attrName));
+            }
+
+            @Override
+            public void apply(Element element) {
+                apply(element, DomMutator.DIRECT);
+            }
+
+            @Override
+            public void apply(Element element, DomMutator mutator) {
+                mutator.setAttribute(element, attrName, newValue);
+            }
+
+            @Override
+            public String keyAttribute() {
+                return attrName;
+            }
+
+            @Override
+            public Collection<String> keyValues() {
+                return Collections.singleton(oldValue);
+            }
+        };
+    }
+}
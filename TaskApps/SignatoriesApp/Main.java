@@ -6,6 +6,7 @@ public class Main {
             Path inputPath = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\SignatoriesApp\\signatories_model_info.xml");
             Path domOutputPath = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\SignatoriesApp\\bin\\output_dom.xml");
             Path xpathOutputPath = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\SignatoriesApp\\bin\\output_xpath.xml");
+            Path staxOutputPath = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\SignatoriesApp\\bin\\output_stax.xml");
 
             System.out.println("=== Processing with DOM (no XPath) ===");
             processWithDom(inputPath, domOutputPath);
@@ -13,6 +14,9 @@ public class Main {
             System.out.println("\n=== Processing with XPath ===");
             processWithXPath(inputPath, xpathOutputPath);
 
+            System.out.println("\n=== Processing with StAX (streaming) ===");
+            processWithStax(inputPath, staxOutputPath);
+
         } catch (Exception e) {
             System.err.println("Error processing XML: " + e.getMessage());
             // I dont get why the exensions are flagging this beauty! but well
@@ -22,22 +26,33 @@ public class Main {
     }
 
     private static void processWithDom(Path inputPath, Path outputPath) throws Exception {
-        XmlProcessor processor = new DomXmlProcessor(inputPath);
+        DomXmlProcessor processor = new DomXmlProcessor(inputPath);
+
+        // Tasks a - e as rules, so the tree is walked once instead of once per task
+        ElementRules.TagNames apiBased = ElementRules.collectTagNames("API_BASED");
+        ElementRules.Counter tableBased = ElementRules.countFieldType("TABLE_BASED");
+        ElementRules.DuplicateChecks duplicateChecks = ElementRules.collectDuplicateChecks();
+        ElementRuleEngine engine = new ElementRuleEngine()
+            .register(apiBased)
+            .register(tableBased)
+            .register(duplicateChecks)
+            .register(ElementRules.removeByTagName(
+                "RESTRICTED_ACCESS_NATIONALITIES_MATCH_TYPE",
+                "MAX_RESTRICTED_ACCESS_NATIONALITIES",
+                "RESTRICTED_ACCESS_NATIONALITIES"))
+            .register(ElementRules.updateAttribute("use", "MANDATORY", "OPTIONAL"));
+        processor.applyRules(engine);
 
         // Task a
-        processor.printApiBasedElements();
+        System.out.println("API_BASED elements by the tag_name(DOM: )");
+        apiBased.getTagNames().forEach(System.out::println);
 
         // Task b
-        System.out.println("TABLE_BASED count: " + processor.countTableBasedElements());
+        System.out.println("TABLE_BASED count: " + tableBased.getCount());
 
         // Task c
-        processor.printDuplicateCheckElements();
-
-        // Task d
-        processor.removeRestrictedElements();
-
-        // Task e
-        processor.updateMandatoryToOptional();
+        System.out.println("Elements with duplicate checking: ");
+        duplicateChecks.getLines().forEach(System.out::println);
 
         // Save results
         processor.saveDocument(outputPath);
@@ -65,5 +80,22 @@ public class Main {
         // Save results
         processor.saveDocument(outputPath);
         System.out.println("XPath processing complete. Output saved to: " + outputPath);
+        System.out.println("Compiled expression reuse: " + XPathCache.shared());
+    }
+
+    private static void processWithStax(Path inputPath, Path outputPath) throws Exception {
+        XmlProcessor processor = new StaxXmlProcessor(inputPath);
+
+        // Tasks d and e are applied while the output is written, and that
+        // same pass collects tasks a - c, so the input is read only once
+        processor.removeRestrictedElements();
+        processor.updateMandatoryToOptional();
+        processor.saveDocument(outputPath);
+
+        processor.printApiBasedElements();
+        System.out.println("TABLE_BASED count: " + processor.countTableBasedElements());
+        processor.printDuplicateCheckElements();
+
+        System.out.println("StAX processing complete. Output saved to: " + outputPath);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.xmlvalidator.XmlSerializer;
+
+/**
+ * Compares the three ways of writing a DOM out: a new TransformerFactory
+ * and Transformer per call (what saveDocument used to do), the cached
+ * Transformer in {@link XmlSerializer#write}, and
+ * {@link XmlSerializer#writeDirect}. Output goes to memory, so the numbers
+ * are serialization only.
+ *
+ * Usage: java SerializerBenchmark [items] [iterations]
+ */
+public class SerializerBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Task {
+        int run(Document doc) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.printf("%-10s %-18s %12s %16s %12s%n", "items", "writer", "time (ms)", "allocated (MB)", "output (KB)");
+
+        for (int size : new int[] {100, items / 100, items}) {
+            Document doc = buildDocument(size);
+            // Small documents are dominated by setup, so run them more often
+            int runs = size < 10_000 ? iterations * 100 : iterations;
+
+            run(size, "new transformer", runs, doc, SerializerBenchmark::newTransformer);
+            run(size, "cached transformer", runs, doc, SerializerBenchmark::cachedTransformer);
+            run(size, "direct", runs, doc, SerializerBenchmark::direct);
+        }
+    }
+
+    private static void run(int size, String label, int runs, Document doc, Task task) throws Exception {
+        int bytes = 0;
+        // warm-up
+        for (int i = 0; i < Math.max(1, runs / 5); i++) {
+            bytes = task.run(doc);
+        }
+
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            task.run(doc);
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / runs;
+        double mb = (THREADS.getCurrentThreadAllocatedBytes() - allocated) / 1024.0 / 1024.0 / runs;
+
+        System.out.printf("%-10d %-18s %12.3f %16.2f %12d%n", size, label, ms, mb, bytes / 1024);
+    }
+
+    private static int newTransformer(Document doc) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.transform(new DOMSource(doc), new StreamResult(out));
+        return out.size();
+    }
+
+    private static int cachedTransformer(Document doc) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlSerializer.write(doc, new StreamResult(out), XmlSerializer.Preset.DEFAULT);
+        return out.size();
+    }
+
+    private static int direct(Document doc) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlSerializer.writeDirect(doc, out);
+        return out.size();
+    }
+
+    // Shaped like signatories_model_info.xml: nested items with field children
+    private static Document buildDocument(int items) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = doc.createElement("item");
+        root.setAttribute("tag_name", "APP");
+        doc.appendChild(root);
+
+        for (int i = 0; i < items; i++) {
+            Element item = doc.createElement("item");
+            item.setAttribute("tag_name", "FIELD_" + i);
+            item.setAttribute("field_type", i % 2 == 0 ? "API_BASED" : "TABLE_BASED");
+            item.setAttribute("use", "MANDATORY");
+
+            Element field = doc.createElement("field");
+            field.setAttribute("name", "name_" + i);
+            field.setTextContent("value " + i + " & more");
+            item.appendChild(field);
+
+            root.appendChild(item);
+        }
+        return doc;
+    }
+}
@@ -0,0 +1,293 @@
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import com.xmlvalidator.MappedXmlInput;
+
+/**
+ * StAX implementation of the tasks. Nothing is loaded into a tree.
+ *
+ * The two mutating tasks only switch on filters that are applied while
+ * {@link #saveDocument(Path)} copies the input to the output. The three
+ * read-only tasks share one pass: whichever pass reads the file first,
+ * a read task or saveDocument, collects the results of all three, and later
+ * calls are answered from them. So the usual order - d, e, save, then
+ * a, b, c - reads the file exactly once. Only the matched names are kept,
+ * never the document.
+ */
+public class StaxXmlProcessor implements XmlProcessor {
+
+    private static final Set<String> RESTRICTED_ELEMENTS = new HashSet<>(Arrays.asList(
+        "RESTRICTED_ACCESS_NATIONALITIES_MATCH_TYPE",
+        "MAX_RESTRICTED_ACCESS_NATIONALITIES",
+        "RESTRICTED_ACCESS_NATIONALITIES"
+    ));
+
+    private final Path xmlFilePath;
+    private final XMLInputFactory inputFactory;
+    private final XMLOutputFactory outputFactory;
+    private final XMLEventFactory eventFactory;
+
+    private boolean removeRestricted;
+    private boolean mandatoryToOptional;
+
+    // Results of tasks a - c, once a pass has collected them
+    private TaskResults results;
+
+    public StaxXmlProcessor(Path xmlFilePath) {
+        this(xmlFilePath, XMLInputFactory.newInstance(), XMLOutputFactory.newInstance(), XMLEventFactory.newInstance());
+    }
+
+    // For callers that pool their factories (see BatchRunner)
+    public StaxXmlProcessor(Path xmlFilePath, XMLInputFactory inputFactory,
+                            XMLOutputFactory outputFactory, XMLEventFactory eventFactory) {
+        this.xmlFilePath = xmlFilePath;
+        this.inputFactory = inputFactory;
+        this.outputFactory = outputFactory;
+        this.eventFactory = eventFactory;
+    }
+
+    // Task a.
+    @Override
+    public void printApiBasedElements() throws Exception {
+        System.out.println("API_BASED elements by the tag_name(StAX): ");
+        for (String tagName : results().apiBased) {
+            System.out.println(tagName);
+        }
+    }
+
+    // Task b.
+    @Override
+    public int countTableBasedElements() throws Exception {
+        return results().tableBased;
+    }
+
+    // Task c.
+    @Override
+    public void printDuplicateCheckElements() throws Exception {
+        System.out.println("Elements with duplicate checking: ");
+        for (String line : results().duplicateChecks) {
+            System.out.println(line);
+        }
+    }
+
+    // Runs the read-only pass unless saveDocument has already collected the results
+    private TaskResults results() throws Exception {
+        if (results != null) {
+            return results;
+        }
+
+        TaskResults collected = new TaskResults();
+        try (InputStream in = MappedXmlInput.openStream(xmlFilePath)) {
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        collected.start(reader.getLocalName(),
+                            reader.getAttributeValue(null, "field_type"),
+                            reader.getAttributeValue(null, "tag_name"),
+                            reader.getAttributeValue(null, "check_duplicates"),
+                            reader.getAttributeValue(null, "name"));
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        collected.end();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        results = collected;
+        return results;
+    }
+
+    /**
+     * What tasks a - c report, gathered from start and end tags as they
+     * stream past.
+     *
+     * An element with check_duplicates stays open until its end tag and
+     * collects the names of its field descendants meanwhile. Matches can
+     * nest, so each open match keeps its own list; lines are emitted in the
+     * order the matches started, as the DOM's pre-order walk prints them.
+     */
+    private static final class TaskResults {
+        private final List<String> apiBased = new ArrayList<>();
+        private int tableBased;
+        private final List<String> duplicateChecks = new ArrayList<>();
+
+        // Open matches innermost first, and all unfinished matches in start order
+        private final Deque<DuplicateCheck> open = new ArrayDeque<>();
+        private final Deque<DuplicateCheck> unfinished = new ArrayDeque<>();
+        private int depth;
+
+        void start(String localName, String fieldType, String tagName, String checkDuplicates, String name) {
+            depth++;
+
+            if ("API_BASED".equals(fieldType) && tagName != null && !tagName.isEmpty()) {
+                apiBased.add(tagName);
+            } else if ("TABLE_BASED".equals(fieldType)) {
+                tableBased++;
+            }
+
+            if ("field".equals(localName)) {
+                for (DuplicateCheck check : open) {
+                    check.fields.append(name == null ? "" : name).append(' ');
+                }
+            }
+
+            if ("true".equalsIgnoreCase(checkDuplicates)) {
+                DuplicateCheck check = new DuplicateCheck(tagName == null ? "" : tagName, depth);
+                open.push(check);
+                unfinished.addLast(check);
+            }
+        }
+
+        void end() {
+            if (!open.isEmpty() && open.peek().depth == depth) {
+                open.pop().finished = true;
+                // An outer match prints before the inner ones it contains
+                while (!unfinished.isEmpty() && unfinished.peekFirst().finished) {
+                    DuplicateCheck check = unfinished.removeFirst();
+                    duplicateChecks.add("Element: " + check.tagName + " - Fields:" + check.fields);
+                }
+            }
+            depth--;
+        }
+    }
+
+    private static final class DuplicateCheck {
+        private final String tagName;
+        private final int depth;
+        private final StringBuilder fields = new StringBuilder();
+        private boolean finished;
+
+        private DuplicateCheck(String tagName, int depth) {
+            this.tagName = tagName;
+            this.depth = depth;
+        }
+    }
+
+    // Task d. Applied while saving.
+    @Override
+    public void removeRestrictedElements() {
+        this.removeRestricted = true;
+    }
+
+    // Task e. Applied while saving.
+    @Override
+    public void updateMandatoryToOptional() {
+        this.mandatoryToOptional = true;
+    }
+
+    // Copy input to output event by event, skipping restricted subtrees and
+    // rewriting use="MANDATORY" on the way through. Tasks a - c are collected
+    // in the same pass, from the input as it was before the filters.
+    @Override
+    public void saveDocument(Path outputPath) throws Exception {
+        try (InputStream in = MappedXmlInput.openStream(xmlFilePath);
+             OutputStream out = Files.newOutputStream(outputPath)) {
+
+            XMLEventReader reader = inputFactory.createXMLEventReader(in);
+            XMLEventWriter writer = outputFactory.createXMLEventWriter(out, "UTF-8");
+            TaskResults collected = results == null ? new TaskResults() : null;
+            try {
+                int skipDepth = 0;
+
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+
+                    if (collected != null) {
+                        if (event.isStartElement()) {
+                            StartElement start = event.asStartElement();
+                            collected.start(start.getName().getLocalPart(),
+                                attributeValue(start, "field_type"),
+                                attributeValue(start, "tag_name"),
+                                attributeValue(start, "check_duplicates"),
+                                attributeValue(start, "name"));
+                        } else if (event.isEndElement()) {
+                            collected.end();
+                        }
+                    }
+
+                    if (skipDepth > 0) {
+                        if (event.isStartElement()) {
+                            skipDepth++;
+                        } else if (event.isEndElement()) {
+                            skipDepth--;
+                        }
+                        continue;
+                    }
+
+                    if (event.isStartElement()) {
+                        StartElement start = event.asStartElement();
+
+                        if (removeRestricted && RESTRICTED_ELEMENTS.contains(start.getName().getLocalPart())) {
+                            skipDepth = 1;
+                            continue;
+                        }
+
+                        if (mandatoryToOptional) {
+                            event = rewriteUse(start);
+                        }
+                    }
+
+                    writer.add(event);
+                }
+
+                writer.flush();
+                if (collected != null) {
+                    results = collected;
+                }
+            } finally {
+                writer.close();
+                reader.close();
+            }
+        }
+    }
+
+    private static String attributeValue(StartElement start, String name) {
+        Attribute attribute = start.getAttributeByName(new QName(name));
+        return attribute == null ? null : attribute.getValue();
+    }
+
+    private StartElement rewriteUse(StartElement start) {
+        Attribute use = start.getAttributeByName(new QName("use"));
+        if (use == null || !"MANDATORY".equals(use.getValue())) {
+            return start;
+        }
+
+        List<Attribute> attributes = new ArrayList<>();
+        Iterator<?> it = start.getAttributes();
+        while (it.hasNext()) {
+            Attribute attribute = (Attribute) it.next();
+            if (attribute.getName().equals(use.getName())) {
+                attributes.add(eventFactory.createAttribute(attribute.getName(), "OPTIONAL"));
+            } else {
+                attributes.add(attribute);
+            }
+        }
+
+        return eventFactory.createStartElement(
+            start.getName(), attributes.iterator(), start.getNamespaces());
+    }
+}
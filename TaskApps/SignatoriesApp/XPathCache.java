@@ -0,0 +1,89 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * Cache of compiled XPath expressions, keyed by the expression string.
+ *
+ * Neither XPath nor XPathExpression is thread-safe, so every thread gets its
+ * own XPath and its own map of compiled expressions. A thread compiles an
+ * expression once and reuses it afterwards; the hit and miss counters are
+ * shared so reuse can be checked across all threads.
+ *
+ * Each thread keeps at most {@code maxSize} expressions and drops the least
+ * recently used one beyond that, so callers that build expression strings
+ * from data cannot make the cache grow without end.
+ */
+public class XPathCache {
+
+    private static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final XPathCache SHARED = new XPathCache();
+
+    private final int maxSize;
+    private final ThreadLocal<XPath> xpath =
+        ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    private final ThreadLocal<Map<String, XPathExpression>> compiled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public XPathCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public XPathCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.compiled = ThreadLocal.withInitial(this::newLruMap);
+    }
+
+    // Access-ordered, so the eldest entry is the least recently used
+    private Map<String, XPathExpression> newLruMap() {
+        return new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static XPathCache shared() {
+        return SHARED;
+    }
+
+    public XPathExpression compile(String expression) throws XPathExpressionException {
+        Map<String, XPathExpression> expressions = compiled.get();
+
+        XPathExpression expr = expressions.get(expression);
+        if (expr != null) {
+            hits.increment();
+            return expr;
+        }
+
+        misses.increment();
+        expr = xpath.get().compile(expression);
+        expressions.put(expression, expr);
+        return expr;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "XPathCache[hits=" + getHits() + ", misses=" + getMisses() + "]";
+    }
+}
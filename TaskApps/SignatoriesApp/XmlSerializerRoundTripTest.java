@@ -0,0 +1,138 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.xmlvalidator.XmlSerializer;
+
+/**
+ * Round-trip check for {@link XmlSerializer#writeDirect}: for every sample
+ * document its output must be byte for byte what the identity Transformer
+ * writes with Preset.DEFAULT, and must parse back into an equal tree.
+ * Documents parsed without expanding entity references must come out
+ * well-formed too, as the DOCTYPE declaring the entities is not written.
+ * Exits with status 1 on the first failed check.
+ *
+ * Usage: java XmlSerializerRoundTripTest [file.xml ...]
+ */
+public class XmlSerializerRoundTripTest {
+
+    private static final String[] SAMPLES = {
+        "<r/>",
+        "<?xml version='1.0' standalone='yes'?><r><e></e></r>",
+        "<?xml version='1.1'?><r/>",
+        "<r z='1' a='2' xmlns:q='urn:q' b='3' q:c='4' xmlns='urn:d'><e></e><f> </f><q:g/></r>",
+        "<r a='&lt;&gt;&amp;&quot;&apos; x&#9;&#10;&#13;é😀\u0085\u007f'>"
+            + "&lt;&gt;&amp;\"'\t&#13;\n é😀 \u0085\u007f  ]]&gt; "
+            + "<![CDATA[c<d]]]]><![CDATA[>\r\n😀]]><!--c- -d- --><?pi d?><?pi2?></r>",
+        "<!DOCTYPE r [<!ENTITY x 'ex<b>t</b>'>]><!--top--><r xml:lang='en'>&x;&amp;</r><?end x?>",
+    };
+
+    public static void main(String[] args) throws Exception {
+        for (String sample : SAMPLES) {
+            byte[] xml = sample.getBytes(StandardCharsets.UTF_8);
+            for (boolean namespaceAware : new boolean[] {true, false}) {
+                Document doc = parse(xml, namespaceAware, true);
+                checkSame(doc, sample);
+                checkReparses(doc, namespaceAware, sample);
+
+                Document unexpanded = parse(xml, namespaceAware, false);
+                checkSame(unexpanded, sample + " with entity references");
+                parse(direct(unexpanded), namespaceAware, true);
+            }
+        }
+
+        checkSame(builtDocument(), "document built with createElementNS");
+        checkSame(builtDocument().getDocumentElement().getFirstChild(), "element of a built document");
+        Document version11 = parse("<?xml version='1.1'?><r><e/></r>".getBytes(StandardCharsets.UTF_8), true, true);
+        checkSame(version11.getDocumentElement().getFirstChild(), "element of an XML 1.1 document");
+
+        for (String file : args.length > 0 ? args : new String[] {"signatories_model_info.xml"}) {
+            Document doc = parse(Files.readAllBytes(Path.of(file)), false, true);
+            checkSame(doc, file);
+            checkReparses(doc, false, file);
+        }
+
+        // The Transformer refuses a lone surrogate, and so must writeDirect
+        Document doc = parse("<r/>".getBytes(StandardCharsets.UTF_8), true, true);
+        doc.getDocumentElement().setTextContent("\uD800x");
+        try {
+            direct(doc);
+            check(false, "lone surrogate was written");
+        } catch (IOException e) {
+            // expected
+        }
+
+        System.out.println("All checks passed");
+    }
+
+    private static void checkSame(org.w3c.dom.Node node, String what) throws Exception {
+        String expected = transformed(node);
+        String actual = new String(direct(node), StandardCharsets.UTF_8);
+        check(actual.equals(expected), "output differs for " + what
+            + "\n  transformer: " + expected + "\n  direct:      " + actual);
+    }
+
+    private static void checkReparses(Document doc, boolean namespaceAware, String what) throws Exception {
+        Document copy = parse(direct(doc), namespaceAware, true);
+        check(copy.getDocumentElement().isEqualNode(doc.getDocumentElement()), "tree differs after round trip for " + what);
+    }
+
+    private static String transformed(org.w3c.dom.Node node) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlSerializer.write(node, new StreamResult(out), XmlSerializer.Preset.DEFAULT);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] direct(org.w3c.dom.Node node) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlSerializer.writeDirect(node, out);
+        return out.toByteArray();
+    }
+
+    private static Document parse(byte[] xml, boolean namespaceAware, boolean expandEntities) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        factory.setExpandEntityReferences(expandEntities);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml));
+    }
+
+    // Namespaces only set through createElementNS and setAttributeNS, so every
+    // xmlns declaration in the output has to be added by the writer
+    private static Document builtDocument() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document doc = factory.newDocumentBuilder().newDocument();
+
+        Element root = doc.createElementNS("urn:a", "p:r");
+        doc.appendChild(root);
+        Element child = doc.createElementNS("urn:b", "c");
+        child.setAttributeNS("urn:z", "z:at", "v");
+        child.setAttribute("plain", "1");
+        root.appendChild(child);
+        child.appendChild(doc.createElementNS(null, "n"));
+        child.appendChild(doc.createElementNS("urn:a", "p:k"));
+        Element empty = doc.createElement("e");
+        empty.appendChild(doc.createTextNode(""));
+        root.appendChild(empty);
+        root.appendChild(doc.createComment("a---b-"));
+        root.appendChild(doc.createCDATASection("x\u0001y"));
+        root.appendChild(doc.createTextNode("c\u0001d"));
+        return doc;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            System.err.println("FAILED: " + message);
+            System.exit(1);
+        }
+    }
+}
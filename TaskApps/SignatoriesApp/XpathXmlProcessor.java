@@ -2,15 +2,10 @@
 import org.w3c.dom.Document;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathFactory;
 
+import java.io.InputStream;
 import java.nio.file.Path;
 
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
@@ -18,17 +13,31 @@ import javax.xml.xpath.XPathExpressionException;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import com.xmlvalidator.MappedXmlInput;
+import com.xmlvalidator.XmlSerializer;
 
 public class XpathXmlProcessor implements  XmlProcessor{
     
     private final Document doc ;
-    private final XPath xpath;
+    private final XPathCache xpath;
 
     public XpathXmlProcessor(Path xmlFilePath) throws Exception {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        this.doc = builder.parse(xmlFilePath.toFile());
-        this.xpath = XPathFactory.newInstance().newXPath();
+        this(xmlFilePath, XPathCache.shared());
+    }
+
+    // Compiled expressions live in the cache, so they are reused across documents
+    public XpathXmlProcessor(Path xmlFilePath, XPathCache xpathCache) throws Exception {
+        this(xmlFilePath,
+            DocumentBuilderFactory.newInstance().newDocumentBuilder(),
+            xpathCache);
+    }
+
+    // For callers that pool their builders (see BatchRunner)
+    public XpathXmlProcessor(Path xmlFilePath, DocumentBuilder builder, XPathCache xpathCache) throws Exception {
+        try (InputStream in = MappedXmlInput.openStream(xmlFilePath)) {
+            this.doc = builder.parse(MappedXmlInput.inputSource(in, xmlFilePath));
+        }
+        this.xpath = xpathCache;
     }
 
     // Task A
@@ -92,7 +101,8 @@ public class XpathXmlProcessor implements  XmlProcessor{
 
             NodeList nodes = (NodeList) expr.evaluate(doc, XPathConstants.NODESET);
 
-            for (int i = 0; i < nodes.getLength()-1; i--) {
+            // NODESET results are a snapshot, so removing while iterating is safe
+            for (int i = 0; i < nodes.getLength(); i++) {
                 Node node = nodes.item(i);
                 node.getParentNode().removeChild(node);
             }
@@ -112,11 +122,7 @@ public class XpathXmlProcessor implements  XmlProcessor{
 
     @Override
     public void saveDocument(Path outputPath) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(outputPath.toFile());
-        transformer.transform(source, result);
+        XmlSerializer.writeDirect(doc, outputPath);
     }
 }
 
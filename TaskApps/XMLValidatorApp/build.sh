@@ -96,6 +96,14 @@ echo
 print_status "Compiling Java source files..."
 echo "  - XMLValidatorApp.java"
 echo "  - XMLValidationErrorHandler.java"
+echo "  - SchemaCache.java"
+echo "  - ValidatorPool.java"
+echo "  - BatchValidator.java"
+echo "  - ValidationServer.java"
+echo "  - IssueSink.java"
+echo "  - ValidatingParser.java"
+echo "  - MappedXmlInput.java"
+echo "  - XmlSerializer.java"
 echo
 
 # Use -Xlint for additional warnings
@@ -152,7 +160,26 @@ else
 fi
 echo
 
-# Display build summary
+# Optional: class-data-sharing archive (./build.sh --cds)
+# A training run validates a sample file and dumps every class it loaded into
+# an AppCDS archive; later runs map that archive instead of loading and
+# verifying the classes again. The archive is only used when the JVM is
+# started with the same JAR path, so run from this directory.
+CDS_ARCHIVE="$BUILD_DIR/XMLValidator.jsa"
+if [ "$1" = "--cds" ]; then
+    print_status "Creating class-data-sharing archive..."
+    java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -jar "$JAR_PATH" \
+         -xml test_files/book/book.xml -xsd test_files/book/book.xsd > /dev/null
+
+    if [ -f "$CDS_ARCHIVE" ]; then
+        print_success "CDS archive created: $CDS_ARCHIVE"
+    else
+        print_error "Failed to create CDS archive"
+        exit 1
+    fi
+    echo
+fi
+
 echo "======================================"
 echo "BUILD SUMMARY"
 echo "======================================"
@@ -170,6 +197,11 @@ echo "======================================"
 echo "Basic usage:"
 echo "  java -jar $JAR_PATH -xml <xml_file> -xsd <xsd_file>"
 echo
+if [ -f "$CDS_ARCHIVE" ]; then
+    echo "With the class-data-sharing archive (faster startup):"
+    echo "  java -XX:SharedArchiveFile=$CDS_ARCHIVE -jar $JAR_PATH -xml <xml_file> -xsd <xsd_file>"
+    echo
+fi
 echo "With JVM options:"
 echo "  java -Duser.timezone=UTC -Xms256m -Xmx1g -jar $JAR_PATH -xml <xml_file> -xsd <xsd_file>"
 echo
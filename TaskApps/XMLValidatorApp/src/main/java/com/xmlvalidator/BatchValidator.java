@@ -0,0 +1,199 @@
+package com.xmlvalidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.xml.validation.Validator;
+import org.xml.sax.SAXException;
+
+/**
+ * Validates many XML files in parallel against one compiled schema.
+ *
+ * The schema comes from {@link SchemaCache}, so it is compiled once and
+ * shared by every worker; each worker borrows its own {@link Validator}
+ * and each file gets its own {@link XMLValidationErrorHandler}. The
+ * handlers never print, as lines from many workers would interleave; each
+ * failed file is reported once at the end, with its first error, followed
+ * by the aggregate pass/fail counts, p50/p99 latency and throughput.
+ */
+public class BatchValidator {
+
+    private final ValidatorPool validators;
+    private final int threads;
+
+    public BatchValidator(ValidatorPool validators, int threads) {
+        this.validators = validators;
+        this.threads = threads;
+    }
+
+    /**
+     * Outcome of validating a single file.
+     */
+    public static class FileResult {
+        final File file;
+        final boolean valid;
+        final String summary;
+        // -1 when the time was not measured; such files are left out of the percentiles
+        final long nanos;
+
+        FileResult(File file, boolean valid, String summary, long nanos) {
+            this.file = file;
+            this.valid = valid;
+            this.summary = summary;
+            this.nanos = nanos;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s - %s", valid ? "PASS" : "FAIL", file, summary);
+        }
+    }
+
+    /**
+     * Expand the batch inputs into a list of files. Each input is either an
+     * XML file, a directory (all *.xml files directly in it), or @path to a
+     * text file listing one path per line.
+     */
+    public static List<File> collectFiles(List<String> inputs) throws IOException {
+        List<File> files = new ArrayList<>();
+
+        for (String input : inputs) {
+            if (input.startsWith("@")) {
+                for (String line : Files.readAllLines(Path.of(input.substring(1)))) {
+                    String path = line.trim();
+                    if (!path.isEmpty() && !path.startsWith("#")) {
+                        files.add(new File(path));
+                    }
+                }
+            } else if (Files.isDirectory(Path.of(input))) {
+                try (Stream<Path> listing = Files.list(Path.of(input))) {
+                    listing.filter(p -> p.getFileName().toString().endsWith(".xml"))
+                           .sorted()
+                           .forEach(p -> files.add(p.toFile()));
+                }
+            } else {
+                files.add(new File(input));
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * Validate all files and print the aggregate report.
+     * @return the per-file results, in input order
+     */
+    public List<FileResult> validateAll(List<File> files) throws InterruptedException {
+        System.out.println("Validating " + files.size() + " files with " + threads + " threads...");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+
+        List<Future<FileResult>> futures = new ArrayList<>();
+        for (File file : files) {
+            futures.add(pool.submit(() -> validate(file)));
+        }
+
+        List<FileResult> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                results.add(new FileResult(files.get(i), false, e.getCause().toString(), -1));
+            }
+        }
+
+        pool.shutdown();
+        long elapsed = System.nanoTime() - start;
+
+        printReport(results, elapsed);
+        return results;
+    }
+
+    private FileResult validate(File file) {
+        long start = System.nanoTime();
+        XMLValidationErrorHandler errorHandler = XMLValidationErrorHandler.fromSystemProperties(false);
+        Validator validator = validators.borrow();
+
+        try {
+            validator.setErrorHandler(errorHandler);
+            try (InputStream in = MappedXmlInput.openStream(file.toPath())) {
+                validator.validate(MappedXmlInput.streamSource(in, file.toPath()));
+            }
+        } catch (SAXException e) {
+            // Fatal errors are already recorded by the handler
+            if (!errorHandler.hasErrors()) {
+                return new FileResult(file, false, e.getMessage(), System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            return new FileResult(file, false, "Cannot read file: " + e.getMessage(), System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            return new FileResult(file, false, e.toString(), System.nanoTime() - start);
+        } finally {
+            validators.release(validator);
+        }
+
+        return new FileResult(file, !errorHandler.hasErrors(), summarize(errorHandler), System.nanoTime() - start);
+    }
+
+    // The counts, plus the first error if one was kept
+    private static String summarize(XMLValidationErrorHandler errorHandler) {
+        String summary = errorHandler.getSummary();
+        if (errorHandler.getErrors().isEmpty()) {
+            return summary;
+        }
+        return summary + "; first: " + errorHandler.getErrors().get(0);
+    }
+
+    private void printReport(List<FileResult> results, long elapsedNanos) {
+        int passed = 0;
+        int measured = 0;
+        long[] latencies = new long[results.size()];
+
+        System.out.println();
+        for (FileResult result : results) {
+            if (result.nanos >= 0) {
+                latencies[measured++] = result.nanos;
+            }
+            if (result.valid) {
+                passed++;
+            } else {
+                System.out.println("  • " + result);
+            }
+        }
+        latencies = Arrays.copyOf(latencies, measured);
+        Arrays.sort(latencies);
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.println();
+        System.out.println("=== Batch Validation Summary ===");
+        System.out.println("Files:      " + results.size());
+        System.out.println("Passed:     " + passed);
+        System.out.println("Failed:     " + (results.size() - passed));
+        System.out.printf("Latency:    p50 %.2f ms, p99 %.2f ms%n",
+                          percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6);
+        System.out.printf("Throughput: %.1f files/sec (%.2f s total)%n", results.size() / seconds, seconds);
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
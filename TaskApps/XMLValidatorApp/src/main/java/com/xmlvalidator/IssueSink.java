@@ -0,0 +1,15 @@
+package com.xmlvalidator;
+
+/**
+ * Receives validation issues as they occur, so a report can be written out
+ * while the document is still being parsed instead of being held in memory.
+ */
+@FunctionalInterface
+public interface IssueSink {
+    
+    /**
+     * @param severity WARNING, ERROR or FATAL ERROR
+     * @param message the formatted message, including line and column
+     */
+    void onIssue(String severity, String message);
+}
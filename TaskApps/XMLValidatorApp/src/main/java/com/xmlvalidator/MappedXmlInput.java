@@ -0,0 +1,211 @@
+package com.xmlvalidator;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import javax.xml.transform.stream.StreamSource;
+import org.xml.sax.InputSource;
+
+/**
+ * File input for the XML parsers built on memory-mapped NIO buffers.
+ *
+ * Handing a java.io.File to a parser makes it read through a FileInputStream
+ * with a small default buffer, one system call per few KB. Here the file is
+ * mapped in large read-only windows and the parser copies straight out of
+ * the page cache. Files of any size work: a new window is mapped when the
+ * previous one is used up, so no single mapping has to cover the whole file.
+ * Each window is unmapped as soon as the next one replaces it or the stream
+ * is closed, instead of whenever the garbage collector gets to it.
+ *
+ * Mapping costs more than it saves on small files, so files under
+ * {@link #MAPPING_THRESHOLD} are read through a plain buffered stream.
+ *
+ * The caller opens and closes the stream; the source wrappers set the system
+ * id so relative references and error messages still resolve against the file.
+ *
+ * This is the only copy: SignatoriesApp and XMLValidatorV2 import it and
+ * compile with {@code -sourcepath ../XMLValidatorApp/src/main/java}.
+ */
+public final class MappedXmlInput {
+
+    /** Size of each mapped window. */
+    static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    /** Files smaller than this are read with buffered I/O instead of being mapped. */
+    static final long MAPPING_THRESHOLD = 1024L * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private MappedXmlInput() {
+    }
+
+    /**
+     * Open a file as a stream over mapped windows, or over a buffered
+     * stream if the file is smaller than {@link #MAPPING_THRESHOLD}.
+     */
+    public static InputStream openStream(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() < MAPPING_THRESHOLD) {
+                return new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            }
+            return new MappedInputStream(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wrap a stream from {@link #openStream(Path)} for SAX and DOM parsers.
+     */
+    public static InputSource inputSource(InputStream in, Path path) {
+        InputSource source = new InputSource(in);
+        source.setSystemId(path.toUri().toString());
+        return source;
+    }
+
+    /**
+     * Wrap a stream from {@link #openStream(Path)} for validators and transformers.
+     */
+    public static StreamSource streamSource(InputStream in, Path path) {
+        return new StreamSource(in, path.toUri().toString());
+    }
+
+    private static final class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        // EMPTY once the stream is at end of file or closed
+        private ByteBuffer window = EMPTY;
+
+        MappedInputStream(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            mapWindow(0);
+        }
+
+        // Maps the window starting at start, unmapping the current one;
+        // at or past the end of the file the window is left empty
+        private void mapWindow(long start) throws IOException {
+            Unmapper.unmap(window);
+            window = EMPTY;
+            windowStart = Math.min(start, size);
+            long length = Math.min(WINDOW_SIZE, size - windowStart);
+            if (length > 0) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+            }
+        }
+
+        // Returns false at end of file
+        private boolean ensureData() throws IOException {
+            if (window.hasRemaining()) {
+                return true;
+            }
+            long next = windowStart + window.capacity();
+            if (next >= size) {
+                return false;
+            }
+            mapWindow(next);
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return ensureData() ? window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureData()) {
+                return -1;
+            }
+            int n = Math.min(len, window.remaining());
+            window.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long position = windowStart + window.position();
+            long target = Math.min(size, position + Math.max(0, n));
+            if (target < windowStart + window.capacity()) {
+                window.position((int) (target - windowStart));
+            } else {
+                // Past this window; at the end of the file this leaves an
+                // empty window there, so the next read returns -1
+                mapWindow(target);
+            }
+            return target - position;
+        }
+
+        @Override
+        public int available() {
+            long remaining = size - (windowStart + window.position());
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Point past the end first, so a read after close cannot touch
+            // the unmapped memory
+            ByteBuffer mapped = window;
+            window = EMPTY;
+            windowStart = size;
+            Unmapper.unmap(mapped);
+            channel.close();
+        }
+    }
+
+    /**
+     * Releases a mapping right away through sun.misc.Unsafe.invokeCleaner,
+     * the only way to do so before Java 19. Where that is not available the
+     * mapping is left to the garbage collector, as before.
+     */
+    private static final class Unmapper {
+
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unsafe = null;
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void unmap(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null || !(buffer instanceof MappedByteBuffer)) {
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                // Left to the garbage collector
+            }
+        }
+    }
+}
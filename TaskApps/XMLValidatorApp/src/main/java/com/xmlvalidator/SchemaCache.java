@@ -0,0 +1,137 @@
+package com.xmlvalidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Long-lived cache of compiled XSD schemas, keyed by the schema's path.
+ * 
+ * Compiling an XSD is the most expensive step of a validation, so it is
+ * done once per file. An entry is recompiled when the file's modification
+ * time or size changes. Each entry carries a {@link ValidatorPool}, so
+ * repeated validations against the same schema only pay for parsing the
+ * instance document.
+ */
+public class SchemaCache {
+    
+    private static final String BUILT_IN_SCHEMA_FACTORY =
+            "com.sun.org.apache.xerces.internal.jaxp.validation.XMLSchemaFactory";
+    private static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+    private static final SchemaCache SHARED = new SchemaCache(DEFAULT_POOL_SIZE);
+    
+    private final ConcurrentMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private final int poolSize;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder compilations = new LongAdder();
+    
+    public SchemaCache(int poolSize) {
+        this.poolSize = poolSize;
+    }
+    
+    /**
+     * @return the process-wide cache
+     */
+    public static SchemaCache getShared() {
+        return SHARED;
+    }
+    
+    /**
+     * Get the compiled schema for an XSD file, compiling it if it is not
+     * cached or has changed on disk.
+     */
+    public Schema getSchema(File xsdFile) throws IOException, SAXException {
+        return getValidatorPool(xsdFile).getSchema();
+    }
+    
+    /**
+     * Get the validator pool for an XSD file, compiling the schema if it is
+     * not cached or has changed on disk.
+     */
+    public ValidatorPool getValidatorPool(File xsdFile) throws IOException, SAXException {
+        Path path = xsdFile.toPath().toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+        
+        Entry entry = entries.get(path);
+        if (entry != null && entry.matches(modified, size)) {
+            hits.increment();
+            return entry.pool;
+        }
+        
+        // Compile outside the map so other schemas are not blocked; if two
+        // threads race on the same file the last one wins, which is harmless.
+        compilations.increment();
+        Schema schema = newSchemaFactory().newSchema(path.toFile());
+        Entry compiled = new Entry(modified, size, new ValidatorPool(schema, poolSize));
+        entries.put(path, compiled);
+        return compiled.pool;
+    }
+    
+    /**
+     * Drop all cached schemas.
+     */
+    public void clear() {
+        entries.clear();
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getCompilationCount() {
+        return compilations.sum();
+    }
+    
+    // SchemaFactory is not thread-safe, so each compilation gets its own.
+    // The JDK's built-in implementation is named directly: SchemaFactory.newInstance(String)
+    // would otherwise check system properties, jaxp.properties and scan the classpath
+    // with ServiceLoader first, which is a noticeable part of a short CLI run. Setting
+    // the standard javax.xml.validation.SchemaFactory property still overrides this.
+    // Schemas may include or import other local XSD files, but nothing is
+    // fetched over the network and no external DTD is read. Validators made
+    // from the schema inherit both limits, so an instance document cannot
+    // pull a local file or URL in through an external entity.
+    private static SchemaFactory newSchemaFactory() throws SAXException {
+        String language = XMLConstants.W3C_XML_SCHEMA_NS_URI;
+        SchemaFactory factory = System.getProperty(SchemaFactory.class.getName() + ":" + language) != null
+                ? SchemaFactory.newInstance(language)
+                : SchemaFactory.newInstance(language, BUILT_IN_SCHEMA_FACTORY, null);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file");
+        return factory;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("SchemaCache{schemas=%d, hits=%d, compilations=%d}", 
+                           entries.size(), getHitCount(), getCompilationCount());
+    }
+    
+    private static final class Entry {
+        final long modified;
+        final long size;
+        final ValidatorPool pool;
+        
+        Entry(long modified, long size, ValidatorPool pool) {
+            this.modified = modified;
+            this.size = size;
+            this.pool = pool;
+        }
+        
+        boolean matches(long modified, long size) {
+            return this.modified == modified && this.size == size;
+        }
+    }
+}
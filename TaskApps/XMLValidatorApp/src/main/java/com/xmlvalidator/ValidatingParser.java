@@ -0,0 +1,166 @@
+package com.xmlvalidator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+import org.w3c.dom.Document;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Validates a document while parsing it, so a validate-then-process flow
+ * reads and parses the file once instead of twice.
+ *
+ * {@link #parse(File)} attaches the compiled schema to the DOM builder and
+ * returns the Document together with its validation report.
+ * {@link #parse(File, ContentHandler)} puts a {@link ValidatorHandler} in a
+ * SAX chain and forwards the validated events to the given handler, for
+ * callers that stream instead of building a tree.
+ */
+public class ValidatingParser {
+
+    private final Schema schema;
+    private final ThreadLocal<DocumentBuilder> builders;
+    private final SAXParserFactory saxParserFactory;
+
+    public ValidatingParser(Schema schema) {
+        this.schema = schema;
+
+        DocumentBuilderFactory factory = newDocumentBuilderFactory();
+        factory.setNamespaceAware(true);
+        factory.setSchema(schema);
+        // Like ValidatorPool: no external DTDs, entities or schemas
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+
+        // DocumentBuilder is not thread-safe; each thread reuses its own
+        this.builders = ThreadLocal.withInitial(() -> {
+            try {
+                synchronized (factory) {
+                    return factory.newDocumentBuilder();
+                }
+            } catch (ParserConfigurationException e) {
+                throw new IllegalStateException("Could not create DocumentBuilder", e);
+            }
+        });
+
+        this.saxParserFactory = newSAXParserFactory();
+        saxParserFactory.setNamespaceAware(true);
+    }
+
+    // As with SchemaCache's SchemaFactory: the JDK's built-in parsers are
+    // taken directly, skipping the service-loader scan of the classpath at
+    // startup, unless the standard system property names another one.
+    private static DocumentBuilderFactory newDocumentBuilderFactory() {
+        return System.getProperty(DocumentBuilderFactory.class.getName()) != null
+                ? DocumentBuilderFactory.newInstance()
+                : DocumentBuilderFactory.newDefaultInstance();
+    }
+
+    private static SAXParserFactory newSAXParserFactory() {
+        return System.getProperty(SAXParserFactory.class.getName()) != null
+                ? SAXParserFactory.newInstance()
+                : SAXParserFactory.newDefaultInstance();
+    }
+
+    /**
+     * Create a parser for a schema from the shared {@link SchemaCache}.
+     */
+    public static ValidatingParser forSchema(File xsdFile) throws IOException, SAXException {
+        return new ValidatingParser(SchemaCache.getShared().getSchema(xsdFile));
+    }
+
+    /**
+     * A parsed document and the result of validating it.
+     */
+    public static class Result {
+        private final Document document;
+        private final XMLValidationErrorHandler report;
+
+        Result(Document document, XMLValidationErrorHandler report) {
+            this.document = document;
+            this.report = report;
+        }
+
+        /**
+         * @return the parsed document, or null if parsing stopped early
+         */
+        public Document getDocument() {
+            return document;
+        }
+
+        public XMLValidationErrorHandler getReport() {
+            return report;
+        }
+
+        public boolean isValid() {
+            return !report.hasErrors();
+        }
+    }
+
+    /**
+     * Parse and validate in one pass, producing a DOM.
+     * Schema errors do not stop parsing; they are collected in the report.
+     * A fatal (well-formedness) error, or reaching maxErrors, leaves the
+     * document null.
+     */
+    public Result parse(File xmlFile) throws IOException, SAXException {
+        XMLValidationErrorHandler report = XMLValidationErrorHandler.fromSystemProperties();
+        DocumentBuilder builder = builders.get();
+        builder.reset();
+        builder.setErrorHandler(report);
+
+        try (InputStream in = MappedXmlInput.openStream(xmlFile.toPath())) {
+            return new Result(builder.parse(MappedXmlInput.inputSource(in, xmlFile.toPath())), report);
+        } catch (SAXException e) {
+            // Fatal errors and maxErrors are recorded by the handler before it throws
+            if (!report.threw(e)) {
+                throw e;
+            }
+            return new Result(null, report);
+        }
+    }
+
+    /**
+     * Parse and validate in one pass, streaming the validated events to
+     * {@code downstream}. Nothing is kept in memory apart from the report.
+     * A fatal error or reaching maxErrors ends the stream early and is only
+     * recorded in the report; a SAXException thrown by {@code downstream}
+     * is passed on to the caller.
+     */
+    public XMLValidationErrorHandler parse(File xmlFile, ContentHandler downstream) throws IOException, SAXException {
+        XMLValidationErrorHandler report = XMLValidationErrorHandler.fromSystemProperties();
+
+        try (InputStream in = MappedXmlInput.openStream(xmlFile.toPath())) {
+            ValidatorHandler validatorHandler = schema.newValidatorHandler();
+            validatorHandler.setErrorHandler(report);
+            validatorHandler.setContentHandler(downstream);
+
+            XMLReader reader = saxParserFactory.newSAXParser().getXMLReader();
+            reader.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            reader.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+            validatorHandler.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            validatorHandler.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+            reader.setContentHandler(validatorHandler);
+            reader.setErrorHandler(report);
+            reader.parse(MappedXmlInput.inputSource(in, xmlFile.toPath()));
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Could not create SAX parser", e);
+        } catch (SAXException e) {
+            // Anything the report did not throw itself came from downstream
+            if (!report.threw(e)) {
+                throw e;
+            }
+        }
+
+        return report;
+    }
+}
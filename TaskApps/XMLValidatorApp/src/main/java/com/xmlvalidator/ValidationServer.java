@@ -0,0 +1,237 @@
+package com.xmlvalidator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Validator;
+import org.xml.sax.SAXException;
+
+/**
+ * Resident validation server built on the JDK's {@link HttpServer}.
+ *
+ * Schemas are compiled once at startup and stay in {@link SchemaCache}, so
+ * a request only pays for parsing its own document. Endpoints:
+ *
+ *   POST /validate[?schema=name.xsd]  body is the XML document; returns the
+ *                                     {@link XMLValidationErrorHandler} result as JSON
+ *   GET  /health                      lists the loaded schemas
+ *
+ * The schema parameter is the XSD file name and may be left out when only
+ * one schema is loaded.
+ *
+ * The server only listens on the loopback address unless it is given
+ * another one. Documents cannot read external DTDs or entities (see
+ * {@link ValidatorPool}), and nothing is printed per request.
+ */
+public class ValidationServer {
+
+    private final Map<String, File> schemas = new LinkedHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ValidationServer(int port, List<File> xsdFiles, int threads) throws IOException, SAXException {
+        this(InetAddress.getLoopbackAddress(), port, xsdFiles, threads);
+    }
+
+    /**
+     * @param bindAddress the address to listen on, e.g. the wildcard address
+     *                    to accept connections from other hosts
+     */
+    public ValidationServer(InetAddress bindAddress, int port, List<File> xsdFiles, int threads)
+            throws IOException, SAXException {
+        for (File xsdFile : xsdFiles) {
+            // Compile up front so the first request does not pay for it
+            SchemaCache.getShared().getValidatorPool(xsdFile);
+            schemas.put(xsdFile.getName(), xsdFile);
+        }
+
+        this.server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/validate", this::handleValidate);
+        server.createContext("/health", this::handleHealth);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("Validation server listening on "
+                + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort());
+        System.out.println("Schemas: " + String.join(", ", schemas.keySet()));
+    }
+
+    /**
+     * @return the address and port the server is listening on
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleValidate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                validate(exchange);
+            } catch (RuntimeException e) {
+                // Answer instead of dropping the connection, unless a response is already on its way
+                System.err.println("Error handling " + exchange.getRequestURI() + ": " + e);
+                if (exchange.getResponseCode() == -1) {
+                    sendJson(exchange, 500, "{\"error\":\"" + escape("Internal error: " + e) + "\"}");
+                }
+            }
+        }
+    }
+
+    private void validate(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            sendJson(exchange, 405, "{\"error\":\"Use POST with the XML document as the body\"}");
+            return;
+        }
+
+        File xsdFile = selectSchema(exchange.getRequestURI().getRawQuery());
+        if (xsdFile == null) {
+            sendJson(exchange, 400, "{\"error\":\"Unknown or missing schema. Loaded: "
+                    + escape(String.join(", ", schemas.keySet())) + "\"}");
+            return;
+        }
+
+        ValidatorPool validators;
+        try {
+            validators = SchemaCache.getShared().getValidatorPool(xsdFile);
+        } catch (SAXException e) {
+            sendJson(exchange, 500, "{\"error\":\"" + escape("Schema failed to compile: " + e.getMessage()) + "\"}");
+            return;
+        }
+
+        XMLValidationErrorHandler errorHandler = XMLValidationErrorHandler.fromSystemProperties(false);
+        Validator validator = validators.borrow();
+
+        try (InputStream body = exchange.getRequestBody()) {
+            validator.setErrorHandler(errorHandler);
+            validator.validate(new StreamSource(body));
+        } catch (SAXException e) {
+            // Fatal errors are recorded by the handler before it rethrows
+            if (!errorHandler.hasErrors()) {
+                sendJson(exchange, 400, "{\"error\":\"" + escape(e.getMessage()) + "\"}");
+                return;
+            }
+        } finally {
+            validators.release(validator);
+        }
+
+        sendJson(exchange, 200, toJson(xsdFile.getName(), errorHandler));
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder json = new StringBuilder("{\"status\":\"ok\",\"schemas\":[");
+            int i = 0;
+            for (String name : schemas.keySet()) {
+                if (i++ > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(escape(name)).append('"');
+            }
+            json.append("]}");
+            sendJson(exchange, 200, json.toString());
+        }
+    }
+
+    private File selectSchema(String rawQuery) {
+        if (rawQuery != null) {
+            for (String param : rawQuery.split("&")) {
+                int eq = param.indexOf('=');
+                if (eq > 0 && "schema".equals(param.substring(0, eq))) {
+                    return schemas.get(URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return schemas.size() == 1 ? schemas.values().iterator().next() : null;
+    }
+
+    /**
+     * Render a handler's result as JSON.
+     */
+    static String toJson(String schemaName, XMLValidationErrorHandler errorHandler) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"schema\":\"").append(escape(schemaName)).append('"');
+        json.append(",\"valid\":").append(!errorHandler.hasErrors());
+        json.append(",\"summary\":\"").append(escape(errorHandler.getSummary())).append('"');
+        json.append(",\"errorCount\":").append(errorHandler.getErrorCount());
+        json.append(",\"warningCount\":").append(errorHandler.getWarningCount());
+        json.append(",\"byCode\":{");
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : errorHandler.getCountsByCode().entrySet()) {
+            if (i++ > 0) {
+                json.append(',');
+            }
+            json.append('"').append(escape(entry.getKey())).append("\":").append(entry.getValue());
+        }
+        json.append('}');
+        appendArray(json, "errors", errorHandler.getErrors());
+        appendArray(json, "warnings", errorHandler.getWarnings());
+        json.append('}');
+        return json.toString();
+    }
+
+    private static void appendArray(StringBuilder json, String name, List<String> values) {
+        json.append(",\"").append(name).append("\":[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(escape(values.get(i))).append('"');
+        }
+        json.append(']');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.xmlvalidator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+/**
+ * Pool of reusable {@link Validator} instances for one compiled schema.
+ * A Schema is thread-safe but a Validator is not, so each thread borrows
+ * its own and hands it back when done.
+ *
+ * Validators take their external access limits from the factory that
+ * compiled the schema; {@link SchemaCache} blocks external DTDs and
+ * entities there. They are not set on each validator: after
+ * {@link Validator#reset()} a validator with its own access properties
+ * fails on its next use.
+ */
+public class ValidatorPool {
+    
+    private final Schema schema;
+    private final BlockingQueue<Validator> idle;
+    
+    /**
+     * @param schema the compiled schema validators are created from
+     * @param maxIdle how many returned validators are kept for reuse
+     */
+    public ValidatorPool(Schema schema, int maxIdle) {
+        this.schema = schema;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+    
+    /**
+     * Take an idle validator, or create one if none is free.
+     * @return a validator with no error handler set
+     */
+    public Validator borrow() {
+        Validator validator = idle.poll();
+        return validator != null ? validator : schema.newValidator();
+    }
+    
+    /**
+     * Return a validator to the pool. It is reset first; if the pool is
+     * already full it is simply dropped.
+     */
+    public void release(Validator validator) {
+        validator.reset();
+        validator.setErrorHandler(null);
+        idle.offer(validator);
+    }
+    
+    public Schema getSchema() {
+        return schema;
+    }
+    
+    /**
+     * @return number of validators currently waiting to be reused
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+}
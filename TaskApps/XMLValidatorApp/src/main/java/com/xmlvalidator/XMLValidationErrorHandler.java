@@ -1,7 +1,10 @@
 package com.xmlvalidator;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -9,24 +12,124 @@ import org.xml.sax.SAXParseException;
 /**
  * Custom error handler for XML validation that captures and categorizes
  * validation errors, warnings, and fatal errors.
+ * 
+ * By default every issue is kept. For very large or badly broken documents
+ * the handler can be bounded: only the first {@code maxStoredIssues}
+ * messages are kept, validation stops after {@code maxErrors} errors, and an
+ * {@link IssueSink} can stream every issue out as it happens. Counts per
+ * issue code are always kept, so the summary stays accurate and small.
  */
 public class XMLValidationErrorHandler implements ErrorHandler {
     
+    /** Means "no limit" for maxStoredIssues and maxErrors. */
+    public static final int UNLIMITED = 0;
+    
+    /** Means "keep no messages, only counts" for maxStoredIssues. */
+    public static final int NONE = -1;
+    
     private final List<String> errors = new ArrayList<>();
     private final List<String> warnings = new ArrayList<>();
     private final List<String> fatalErrors = new ArrayList<>();
     
+    private final int maxStoredIssues;
+    private final int maxErrors;
+    private final IssueSink sink;
+    private final boolean console;
+    
+    private int errorCount;
+    private int warningCount;
+    private int fatalErrorCount;
+    private boolean aborted;
+    // The exception this handler last threw to stop the parse
+    private SAXException thrown;
+    
+    // error code (e.g. cvc-complex-type.2.4.a) -> [count, first line]
+    private final Map<String, int[]> codeCounts = new LinkedHashMap<>();
+    
+    /**
+     * Create an unbounded handler that keeps every issue.
+     */
+    public XMLValidationErrorHandler() {
+        this(UNLIMITED, UNLIMITED, null);
+    }
+    
+    /**
+     * Create a bounded handler.
+     * @param maxStoredIssues how many messages to keep per list, {@link #UNLIMITED} or {@link #NONE}
+     * @param maxErrors stop validation once this many errors were seen, or {@link #UNLIMITED}
+     * @param sink receives every issue as it occurs; may be null
+     */
+    public XMLValidationErrorHandler(int maxStoredIssues, int maxErrors, IssueSink sink) {
+        this(maxStoredIssues, maxErrors, sink, true);
+    }
+    
+    /**
+     * Create a bounded handler.
+     * @param maxStoredIssues how many messages to keep per list, {@link #UNLIMITED} or {@link #NONE}
+     * @param maxErrors stop validation once this many errors were seen, or {@link #UNLIMITED}
+     * @param sink receives every issue as it occurs; may be null
+     * @param console whether warnings and fatal errors are also printed to the
+     *                console; when a sink is given it does the printing instead
+     * @throws IllegalArgumentException if a limit is out of range
+     */
+    public XMLValidationErrorHandler(int maxStoredIssues, int maxErrors, IssueSink sink, boolean console) {
+        if (maxStoredIssues < NONE) {
+            throw new IllegalArgumentException("maxStoredIssues must be " + NONE + " (none), " + UNLIMITED
+                    + " (no limit) or more, got " + maxStoredIssues);
+        }
+        if (maxErrors < 0) {
+            throw new IllegalArgumentException("maxErrors must be " + UNLIMITED + " (no limit) or more, got " + maxErrors);
+        }
+        this.maxStoredIssues = maxStoredIssues;
+        this.maxErrors = maxErrors;
+        this.sink = sink;
+        this.console = console;
+    }
+    
+    /**
+     * Create a handler configured from JVM options:
+     * -DmaxErrors=&lt;n&gt;, -DmaxStoredIssues=&lt;n&gt; and -DstreamIssues=true
+     * (print each issue to stdout as it occurs). A streaming handler keeps
+     * no messages unless -DmaxStoredIssues asks for them, so its memory
+     * does not grow with the number of issues.
+     */
+    public static XMLValidationErrorHandler fromSystemProperties() {
+        return fromSystemProperties(true);
+    }
+    
+    /**
+     * Create a handler configured from JVM options, as above.
+     * @param console false for a handler that never prints, e.g. one per
+     *                server request; -DstreamIssues is then ignored
+     */
+    public static XMLValidationErrorHandler fromSystemProperties(boolean console) {
+        IssueSink sink = console && Boolean.getBoolean("streamIssues")
+                ? (severity, message) -> System.out.println("  • " + message)
+                : null;
+        return new XMLValidationErrorHandler(
+                Integer.getInteger("maxStoredIssues", sink != null ? NONE : UNLIMITED),
+                Integer.getInteger("maxErrors", UNLIMITED),
+                sink,
+                console);
+    }
+    
     /**
      * Handle warning conditions during XML validation.
      * Warnings don't prevent successful validation but indicate potential issues.
      */
     @Override
     public void warning(SAXParseException e) throws SAXException {
+        warningCount++;
+        countCode(e);
+        
         String warning = formatErrorMessage("WARNING", e);
-        warnings.add(warning);
+        store(warnings, warning);
+        emit("WARNING", warning);
         
-        // Print warning immediately for real-time feedback
-        System.out.println("Relaax! This is just a warning \n " + warning);
+        // Print warning immediately for real-time feedback, unless the sink already has
+        if (console && sink == null) {
+            System.out.println("Relaax! This is just a warning \n " + warning);
+        }
     }
     
     /**
@@ -35,9 +138,20 @@ public class XMLValidationErrorHandler implements ErrorHandler {
      */
     @Override
     public void error(SAXParseException e) throws SAXException {
-        String error = formatErrorMessage("ERROR", e);
-        errors.add(error);
-    
+        errorCount++;
+        countCode(e);
+        
+        if (store(errors, null) || sink != null) {
+            String error = formatErrorMessage("ERROR", e);
+            store(errors, error);
+            emit("ERROR", error);
+        }
+        
+        if (maxErrors != UNLIMITED && errorCount >= maxErrors) {
+            aborted = true;
+            thrown = new SAXException("Validation stopped after " + errorCount + " errors", e);
+            throw thrown;
+        }
     }
     
     /**
@@ -46,15 +160,72 @@ public class XMLValidationErrorHandler implements ErrorHandler {
      */
     @Override
     public void fatalError(SAXParseException e) throws SAXException {
+        fatalErrorCount++;
+        errorCount++;
+        countCode(e);
+        
         String fatalError = formatErrorMessage("FATAL ERROR", e);
-        fatalErrors.add(fatalError);
-        errors.add(fatalError); 
+        store(fatalErrors, fatalError);
+        store(errors, fatalError); 
+        emit("FATAL ERROR", fatalError);
         
-        System.err.println("RUUUUN! MURIFE RUN! THIS IS A FATAL ERROR \n " + fatalError);
+        if (console && sink == null) {
+            System.err.println("RUUUUN! MURIFE RUN! THIS IS A FATAL ERROR \n " + fatalError);
+        }
    
+        thrown = e;
         throw e;
     }
     
+    /**
+     * Check whether an exception that ended a parse was thrown by this
+     * handler, as opposed to by some other part of the parse chain.
+     */
+    boolean threw(SAXException e) {
+        return e != null && e == thrown;
+    }
+    
+    /**
+     * Add a message to a list unless the list is full. Called with a null
+     * message it only answers whether there is still room.
+     */
+    private boolean store(List<String> list, String message) {
+        // NONE is negative, so no list ever has room for it
+        boolean room = maxStoredIssues == UNLIMITED || list.size() < maxStoredIssues;
+        if (room && message != null) {
+            list.add(message);
+        }
+        return room;
+    }
+    
+    private void emit(String severity, String message) {
+        if (sink != null) {
+            sink.onIssue(severity, message);
+        }
+    }
+    
+    /**
+     * Xerces messages start with a code such as "cvc-datatype-valid.1.2.1:".
+     * Anything without one is counted under the generic "other".
+     */
+    private void countCode(SAXParseException e) {
+        String message = e.getMessage();
+        String code = "other";
+        if (message != null) {
+            int colon = message.indexOf(':');
+            if (colon > 0 && colon < 64 && message.indexOf(' ') > colon) {
+                code = message.substring(0, colon);
+            }
+        }
+        
+        int[] entry = codeCounts.get(code);
+        if (entry == null) {
+            codeCounts.put(code, new int[] {1, e.getLineNumber()});
+        } else {
+            entry[0]++;
+        }
+    }
+    
     /**
      * Format an error message with location information and details.
      */
@@ -86,7 +257,7 @@ public class XMLValidationErrorHandler implements ErrorHandler {
      * @return true if there were errors or fatal errors
      */
     public boolean hasErrors() {
-        return !errors.isEmpty() || !fatalErrors.isEmpty();
+        return errorCount > 0;
     }
     
     /**
@@ -94,31 +265,91 @@ public class XMLValidationErrorHandler implements ErrorHandler {
      * @return true if there were warnings
      */
     public boolean hasWarnings() {
-        return !warnings.isEmpty();
+        return warningCount > 0;
+    }
+    
+    /**
+     * Check whether each issue is handed to a sink as it occurs, and so has
+     * already been reported.
+     */
+    public boolean isStreaming() {
+        return sink != null;
     }
     
     /**
-     * Get all validation errors (including fatal errors).
-     * @return copy of the errors list
+     * Check whether validation was stopped early because maxErrors was reached.
+     */
+    public boolean isAborted() {
+        return aborted;
+    }
+    
+    /**
+     * Get the stored validation errors (including fatal errors).
+     * When bounded, this holds at most maxStoredIssues entries.
+     * @return read-only view of the errors list
      */
     public List<String> getErrors() {
-        return new ArrayList<>(errors);
+        return Collections.unmodifiableList(errors);
     }
     
     /**
-     * Get all validation warnings.
-     * @return copy of the warnings list
+     * Get the stored validation warnings.
+     * @return read-only view of the warnings list
      */
     public List<String> getWarnings() {
-        return new ArrayList<>(warnings);
+        return Collections.unmodifiableList(warnings);
     }
     
     /**
-     * Get fatal errors specifically.
-     * @return copy of the fatal errors list
+     * Get the stored fatal errors specifically.
+     * @return read-only view of the fatal errors list
      */
     public List<String> getFatalErrors() {
-        return new ArrayList<>(fatalErrors);
+        return Collections.unmodifiableList(fatalErrors);
+    }
+    
+    /**
+     * @return number of errors seen, including ones that were not stored
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+    
+    /**
+     * @return number of warnings seen, including ones that were not stored
+     */
+    public int getWarningCount() {
+        return warningCount;
+    }
+    
+    /**
+     * @return number of fatal errors seen
+     */
+    public int getFatalErrorCount() {
+        return fatalErrorCount;
+    }
+    
+    /**
+     * Get how often each issue code occurred, warnings included, in order
+     * of first appearance.
+     * @return issue code -> number of occurrences
+     */
+    public Map<String, Integer> getCountsByCode() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        codeCounts.forEach((code, entry) -> counts.put(code, entry[0]));
+        return counts;
+    }
+    
+    /**
+     * Get a compact report with one line per issue code, warnings
+     * included: how often it occurred and the line it first appeared on.
+     * @return formatted report lines
+     */
+    public List<String> getCodeReport() {
+        List<String> report = new ArrayList<>();
+        codeCounts.forEach((code, entry) -> report.add(
+                String.format("%s x%d (first at line %d)", code, entry[0], entry[1])));
+        return report;
     }
     
     /**
@@ -126,7 +357,7 @@ public class XMLValidationErrorHandler implements ErrorHandler {
      * @return total issue count
      */
     public int getTotalIssueCount() {
-        return errors.size() + warnings.size();
+        return errorCount + warningCount;
     }
     
     /**
@@ -137,6 +368,12 @@ public class XMLValidationErrorHandler implements ErrorHandler {
         errors.clear();
         warnings.clear();
         fatalErrors.clear();
+        codeCounts.clear();
+        errorCount = 0;
+        warningCount = 0;
+        fatalErrorCount = 0;
+        aborted = false;
+        thrown = null;
     }
     
     /**
@@ -151,15 +388,19 @@ public class XMLValidationErrorHandler implements ErrorHandler {
         } else {
             sb.append("Validation Summary: ");
             
-            if (!errors.isEmpty()) {
-                sb.append(errors.size()).append(" error(s)");
+            if (errorCount > 0) {
+                sb.append(errorCount).append(" error(s)");
             }
             
-            if (!warnings.isEmpty()) {
-                if (!errors.isEmpty()) {
+            if (warningCount > 0) {
+                if (errorCount > 0) {
                     sb.append(", ");
                 }
-                sb.append(warnings.size()).append(" warning(s)");
+                sb.append(warningCount).append(" warning(s)");
+            }
+            
+            if (aborted) {
+                sb.append(" (stopped early)");
             }
         }
         
@@ -169,6 +410,6 @@ public class XMLValidationErrorHandler implements ErrorHandler {
     @Override
     public String toString() {
         return String.format("XMLValidationErrorHandler{errors=%d, warnings=%d, fatalErrors=%d}", 
-                           errors.size(), warnings.size(), fatalErrors.size());
+                           errorCount, warningCount, fatalErrorCount);
     }
-}
\ No newline at end of file
+}
@@ -2,25 +2,68 @@ package com.xmlvalidator;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.TimeZone;
-import javax.xml.XMLConstants;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 public class XMLValidatorApp {
     
     private static final String XML_ARG = "-xml";
     private static final String XSD_ARG = "-xsd";
+    private static final String BATCH_ARG = "-batch";
+    private static final String THREADS_ARG = "-threads";
+    private static final String SERVE_ARG = "-serve";
+    private static final String BIND_ARG = "-bind";
+    private static final String PARSE_ARG = "-parse";
     
     public static void main(String[] args) {
         // Print JVM information and current date/time
         printSystemInfo();
+
+        // Reject bad -DmaxErrors / -DmaxStoredIssues before any file is read
+        try {
+            XMLValidationErrorHandler.fromSystemProperties(false);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: -D" + e.getMessage());
+            System.exit(1);
+        }
+
+        // Resident server that keeps schemas compiled between requests
+        if (Arrays.asList(args).contains(SERVE_ARG)) {
+            ServeArgs serveArgs = parseServeArguments(args);
+            
+            if (serveArgs == null) {
+                printUsage();
+                System.exit(1);
+            }
+            
+            startServer(serveArgs);
+            return;
+        }
+        
+        // Many files against one schema
+        if (Arrays.asList(args).contains(BATCH_ARG)) {
+            BatchArgs batchArgs = parseBatchArguments(args);
+            
+            if (batchArgs == null) {
+                printUsage();
+                System.exit(1);
+            }
+            
+            validateBatch(batchArgs);
+            return;
+        }
         
         // Parse command-line arguments
         CommandLineArgs cmdArgs = parseArguments(args);
@@ -31,7 +74,7 @@ public class XMLValidatorApp {
         }
         
         // Validate XML
-        validateXML(cmdArgs.xmlFilePath, cmdArgs.xsdFilePath);
+        validateXML(cmdArgs.xmlFilePath, cmdArgs.xsdFilePath, cmdArgs.parseMode);
     }
     
     private static void printSystemInfo() {
@@ -83,13 +126,14 @@ public class XMLValidatorApp {
             return null;
         }
         
-        if (args.length != 4) {
-            System.err.println("Error: Invalid number of arguments. Expected 4, got " + args.length);
+        if (args.length != 4 && args.length != 6) {
+            System.err.println("Error: Invalid number of arguments. Expected 4 or 6, got " + args.length);
             return null;
         }
         
         String xmlFilePath = null;
         String xsdFilePath = null;
+        String parseMode = null;
         
         // Parse arguments
         for (int i = 0; i < args.length; i += 2) {
@@ -104,8 +148,15 @@ public class XMLValidatorApp {
             switch (arg) {
                 case XML_ARG -> xmlFilePath = value;
                 case XSD_ARG -> xsdFilePath = value;
+                case PARSE_ARG -> {
+                    if (!value.equals("dom") && !value.equals("sax")) {
+                        System.err.println("Error: " + PARSE_ARG + " expects dom or sax, got '" + value + "'");
+                        return null;
+                    }
+                    parseMode = value;
+                }
                 default -> {
-                    System.err.println("Error: Unknown argument '" + arg + "'. Expected " + XML_ARG + " or " + XSD_ARG);
+                    System.err.println("Error: Unknown argument '" + arg + "'. Expected " + XML_ARG + ", " + XSD_ARG + " or " + PARSE_ARG);
                     return null;
                 }
             }
@@ -122,10 +173,169 @@ public class XMLValidatorApp {
             return null;
         }
         
-        return new CommandLineArgs(xmlFilePath, xsdFilePath);
+        return new CommandLineArgs(xmlFilePath, xsdFilePath, parseMode);
+    }
+    
+    private static BatchArgs parseBatchArguments(String[] args) {
+        String xsdFilePath = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> inputs = new ArrayList<>();
+        
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            
+            switch (arg) {
+                case BATCH_ARG -> {
+                    // Everything up to the next option is an input
+                    while (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+                        inputs.add(args[++i]);
+                    }
+                }
+                case XSD_ARG, THREADS_ARG -> {
+                    if (i + 1 >= args.length) {
+                        System.err.println("Error: Missing value for argument " + arg);
+                        return null;
+                    }
+                    String value = args[++i];
+                    if (arg.equals(XSD_ARG)) {
+                        xsdFilePath = value;
+                    } else {
+                        try {
+                            threads = Integer.parseInt(value);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: " + THREADS_ARG + " expects a number, got '" + value + "'");
+                            return null;
+                        }
+                    }
+                }
+                default -> {
+                    System.err.println("Error: Unknown argument '" + arg + "'. Expected " + XSD_ARG + ", " + BATCH_ARG + " or " + THREADS_ARG);
+                    return null;
+                }
+            }
+        }
+        
+        if (xsdFilePath == null) {
+            System.err.println("Error: Missing required argument " + XSD_ARG);
+            return null;
+        }
+        
+        if (inputs.isEmpty()) {
+            System.err.println("Error: " + BATCH_ARG + " needs at least one file, directory or @list");
+            return null;
+        }
+        
+        if (threads < 1) {
+            System.err.println("Error: " + THREADS_ARG + " must be at least 1");
+            return null;
+        }
+        
+        return new BatchArgs(xsdFilePath, inputs, threads);
+    }
+    
+    private static void validateBatch(BatchArgs batchArgs) {
+        System.out.println("=== XML Batch Validation ===");
+        System.out.println("XSD File: " + batchArgs.xsdFilePath);
+        System.out.println();
+        
+        try {
+            File xsdFile = new File(batchArgs.xsdFilePath);
+            if (!xsdFile.canRead()) {
+                System.err.println("Error: Cannot read XSD file: " + batchArgs.xsdFilePath);
+                return;
+            }
+            
+            List<File> files = BatchValidator.collectFiles(batchArgs.inputs);
+            ValidatorPool validators = SchemaCache.getShared().getValidatorPool(xsdFile);
+            System.out.println("✓ XSD schema loaded successfully");
+            
+            new BatchValidator(validators, batchArgs.threads).validateAll(files);
+            
+        } catch (IOException | SAXException e) {
+            System.err.println(" XML BATCH VALIDATION FAILED");
+            System.err.println("Unexpected error during validation: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch validation interrupted");
+        }
+    }
+    
+    private static ServeArgs parseServeArguments(String[] args) {
+        int port = -1;
+        String bindAddress = null;
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        List<String> xsdFilePaths = new ArrayList<>();
+        
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                System.err.println("Error: Missing value for argument " + args[i]);
+                return null;
+            }
+            
+            String arg = args[i];
+            String value = args[i + 1];
+            
+            try {
+                switch (arg) {
+                    case SERVE_ARG -> port = Integer.parseInt(value);
+                    case XSD_ARG -> xsdFilePaths.add(value);
+                    case THREADS_ARG -> threads = Integer.parseInt(value);
+                    case BIND_ARG -> bindAddress = value;
+                    default -> {
+                        System.err.println("Error: Unknown argument '" + arg + "'. Expected " + SERVE_ARG + ", " + XSD_ARG + ", " + THREADS_ARG + " or " + BIND_ARG);
+                        return null;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Error: " + arg + " expects a number, got '" + value + "'");
+                return null;
+            }
+        }
+        
+        if (port < 0 || port > 65535) {
+            System.err.println("Error: " + SERVE_ARG + " needs a port between 0 and 65535");
+            return null;
+        }
+        
+        if (xsdFilePaths.isEmpty()) {
+            System.err.println("Error: Missing required argument " + XSD_ARG);
+            return null;
+        }
+        
+        if (threads < 1) {
+            System.err.println("Error: " + THREADS_ARG + " must be at least 1");
+            return null;
+        }
+        
+        return new ServeArgs(port, bindAddress, xsdFilePaths, threads);
     }
     
-    private static void validateXML(String xmlFilePath, String xsdFilePath) {
+    private static void startServer(ServeArgs serveArgs) {
+        List<File> xsdFiles = new ArrayList<>();
+        for (String path : serveArgs.xsdFilePaths) {
+            File xsdFile = new File(path);
+            if (!xsdFile.canRead()) {
+                System.err.println("Error: Cannot read XSD file: " + path);
+                System.exit(1);
+            }
+            xsdFiles.add(xsdFile);
+        }
+        
+        try {
+            // Loopback only, unless another address was asked for explicitly
+            InetAddress bindAddress = serveArgs.bindAddress == null
+                    ? InetAddress.getLoopbackAddress()
+                    : InetAddress.getByName(serveArgs.bindAddress);
+            ValidationServer server = new ValidationServer(bindAddress, serveArgs.port, xsdFiles, serveArgs.threads);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+            server.start();
+        } catch (IOException | SAXException e) {
+            System.err.println("Error: Could not start validation server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    private static void validateXML(String xmlFilePath, String xsdFilePath, String parseMode) {
         System.out.println("=== XML Validation Process ===");
         System.out.println("XML File: " + xmlFilePath);
         System.out.println("XSD File: " + xsdFilePath);
@@ -160,35 +370,62 @@ public class XMLValidatorApp {
             System.out.println("Starting validation...");
             System.out.println();
             
-            // Create schema factory
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            
-            // Load XSD schema
+            // Load XSD schema (compiled once and cached for later validations)
             System.out.println("Loading XSD schema...");
-            Schema schema = schemaFactory.newSchema(xsdFile);
+            ValidatorPool validators = SchemaCache.getShared().getValidatorPool(xsdFile);
             System.out.println("✓ XSD schema loaded successfully");
             
-            // Create validator
-            Validator validator = schema.newValidator();
-            
-            // Set error handler for detailed error reporting
-            XMLValidationErrorHandler errorHandler = new XMLValidationErrorHandler();
-            validator.setErrorHandler(errorHandler);
-            
-            // Validate XML
-            System.out.println("Validating XML against schema...");
-            validator.validate(new StreamSource(xmlFile));
+            XMLValidationErrorHandler errorHandler;
+            if (parseMode != null) {
+                // One parse yields the document or event stream and the report
+                errorHandler = parseAndValidate(parseMode, xmlFile, validators.getSchema());
+            } else {
+                // Borrow a validator
+                Validator validator = validators.borrow();
+                
+                // Set error handler for detailed error reporting
+                // Bounded via -DmaxErrors / -DmaxStoredIssues / -DstreamIssues=true
+                errorHandler = XMLValidationErrorHandler.fromSystemProperties();
+                validator.setErrorHandler(errorHandler);
+                
+                // Validate XML
+                System.out.println("Validating XML against schema...");
+                try (InputStream in = MappedXmlInput.openStream(xmlFile.toPath())) {
+                    validator.validate(MappedXmlInput.streamSource(in, xmlFile.toPath()));
+                } catch (SAXException e) {
+                    // Stopping at maxErrors is a normal outcome, not a failure to validate
+                    if (!errorHandler.isAborted()) {
+                        throw e;
+                    }
+                } finally {
+                    validators.release(validator);
+                }
+            }
             
             // Report results
             System.out.println();
             if (errorHandler.hasErrors()) {
                 System.out.println("XML VALIDATION FAILED");
-                System.out.println("Total errors found: " + errorHandler.getErrors().size());
+                System.out.println("Total errors found: " + errorHandler.getErrorCount()
+                        + (errorHandler.isAborted() ? " (stopped early)" : ""));
                 System.out.println();
-                System.out.println("Validation Errors:");
-                errorHandler.getErrors().forEach(error -> System.out.println("  • " + error));
+                if (errorHandler.isStreaming()) {
+                    // Every issue was printed as it was found
+                    System.out.println("Issues by code (errors and warnings):");
+                    errorHandler.getCodeReport().forEach(line -> System.out.println("  • " + line));
+                } else {
+                    System.out.println("Validation Errors:");
+                    errorHandler.getErrors().forEach(error -> System.out.println("  • " + error));
+                    
+                    if (errorHandler.getErrors().size() < errorHandler.getErrorCount()) {
+                        System.out.println("  ... " + (errorHandler.getErrorCount() - errorHandler.getErrors().size()) + " more not stored");
+                        System.out.println();
+                        System.out.println("Issues by code (errors and warnings):");
+                        errorHandler.getCodeReport().forEach(line -> System.out.println("  • " + line));
+                    }
+                }
                 
-                if (!errorHandler.getWarnings().isEmpty()) {
+                if (!errorHandler.isStreaming() && !errorHandler.getWarnings().isEmpty()) {
                     System.out.println();
                     System.out.println("Warnings:");
                     errorHandler.getWarnings().forEach(warning -> System.out.println("  • " + warning));
@@ -197,7 +434,7 @@ public class XMLValidatorApp {
                 System.out.println("XML VALIDATION SUCCESSFUL");
                 System.out.println("The XML file is valid according to the provided XSD schema.");
                 
-                if (!errorHandler.getWarnings().isEmpty()) {
+                if (!errorHandler.isStreaming() && !errorHandler.getWarnings().isEmpty()) {
                     System.out.println();
                     System.out.println("Warnings (validation still successful):");
                     errorHandler.getWarnings().forEach(warning -> System.out.println("  • " + warning));
@@ -217,17 +454,66 @@ public class XMLValidatorApp {
         }
     }
     
+    /**
+     * Validate while parsing with {@link ValidatingParser}, either building
+     * a DOM or streaming SAX events, and say how many elements came out.
+     */
+    private static XMLValidationErrorHandler parseAndValidate(String parseMode, File xmlFile, Schema schema)
+            throws IOException, SAXException {
+        ValidatingParser parser = new ValidatingParser(schema);
+        
+        if (parseMode.equals("dom")) {
+            System.out.println("Parsing and validating XML into a DOM...");
+            ValidatingParser.Result result = parser.parse(xmlFile);
+            if (result.getDocument() != null) {
+                System.out.println("✓ Document built: "
+                        + result.getDocument().getElementsByTagName("*").getLength() + " elements");
+            }
+            return result.getReport();
+        }
+        
+        System.out.println("Parsing and validating XML as a SAX stream...");
+        int[] elements = new int[1];
+        XMLValidationErrorHandler report = parser.parse(xmlFile, new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                elements[0]++;
+            }
+        });
+        System.out.println("✓ Streamed " + elements[0] + " elements");
+        return report;
+    }
+    
     private static void printUsage() {
         System.out.println();
         System.out.println("USAGE:");
-        System.out.println("  java [JVM_OPTIONS] -jar XMLValidator.jar -xml <xml_file_path> -xsd <xsd_file_path>");
+        System.out.println("  java [JVM_OPTIONS] -jar XMLValidator.jar -xml <xml_file_path> -xsd <xsd_file_path> [-parse <dom|sax>]");
+        System.out.println("  java [JVM_OPTIONS] -jar XMLValidator.jar -xsd <xsd_file_path> -batch <input>... [-threads <n>]");
+        System.out.println("  java [JVM_OPTIONS] -jar XMLValidator.jar -serve <port> -xsd <xsd_file_path> [-xsd <path>...] [-threads <n>] [-bind <address>]");
         System.out.println();
         System.out.println("REQUIRED ARGUMENTS:");
         System.out.println("  -xml <path>    Path to the XML file to validate");
         System.out.println("  -xsd <path>    Path to the XSD schema file");
         System.out.println();
+        System.out.println("OPTIONAL ARGUMENTS:");
+        System.out.println("  -parse <dom|sax>   Validate while parsing, producing a DOM or a SAX event stream");
+        System.out.println();
+        System.out.println("BATCH MODE:");
+        System.out.println("  -batch <input>...  XML files, directories (all *.xml) or @list files (one path per line)");
+        System.out.println("  -threads <n>       Number of parallel validations (default: number of CPUs)");
+        System.out.println();
+        System.out.println("SERVER MODE:");
+        System.out.println("  -serve <port>      Keep schemas compiled and validate over HTTP");
+        System.out.println("                     POST /validate[?schema=<xsd file name>] with the XML as the body");
+        System.out.println("                     GET  /health lists the loaded schemas");
+        System.out.println("  -bind <address>    Address to listen on (default: loopback only; 0.0.0.0 for all)");
+        System.out.println();
         System.out.println("EXAMPLE:");
         System.out.println("  java -jar XMLValidator.jar -xml data.xml -xsd schema.xsd");
+        System.out.println("  java -jar XMLValidator.jar -xml data.xml -xsd schema.xsd -parse dom");
+        System.out.println("  java -jar XMLValidator.jar -xsd schema.xsd -batch inbound/ @retries.txt -threads 8");
+        System.out.println("  java -jar XMLValidator.jar -serve 8080 -xsd schema.xsd");
+        System.out.println("  curl --data-binary @data.xml http://localhost:8080/validate");
         System.out.println();
         System.out.println("EXAMPLE WITH JVM OPTIONS:");
         System.out.println("  java -Duser.timezone=UTC -Xms256m -Xmx1g -jar XMLValidator.jar -xml data.xml -xsd schema.xsd");
@@ -237,6 +523,9 @@ public class XMLValidatorApp {
         System.out.println("  -Xms<size>             Set minimum heap size (256m, 512m, 1g, etc.)");
         System.out.println("  -Xmx<size>             Set maximum heap size (512m, 1g, 2g, etc.)");
         System.out.println("  -Ddebug=true           Enable detailed error reporting");
+        System.out.println("  -DmaxErrors=<n>        Stop validating a file after n errors (0: no limit)");
+        System.out.println("  -DmaxStoredIssues=<n>  Keep at most n messages per list, 0 for all, -1 for none (counts stay exact)");
+        System.out.println("  -DstreamIssues=true    Print each issue as soon as it is found, and keep none of them");
         System.out.println();
     }
     
@@ -244,16 +533,46 @@ public class XMLValidatorApp {
     private static class CommandLineArgs {
         final String xmlFilePath;
         final String xsdFilePath;
+        final String parseMode;
         
-        CommandLineArgs(String xmlFilePath, String xsdFilePath) {
+        CommandLineArgs(String xmlFilePath, String xsdFilePath, String parseMode) {
             this.xmlFilePath = xmlFilePath;
             this.xsdFilePath = xsdFilePath;
+            this.parseMode = parseMode;
         }
         
         @Override
         public String toString() {
-            return String.format("CommandLineArgs{xmlFilePath='%s', xsdFilePath='%s'}", 
-                               xmlFilePath, xsdFilePath);
+            return String.format("CommandLineArgs{xmlFilePath='%s', xsdFilePath='%s', parseMode='%s'}", 
+                               xmlFilePath, xsdFilePath, parseMode);
+        }
+    }
+    
+    // Inner class for batch-mode arguments
+    private static class BatchArgs {
+        final String xsdFilePath;
+        final List<String> inputs;
+        final int threads;
+        
+        BatchArgs(String xsdFilePath, List<String> inputs, int threads) {
+            this.xsdFilePath = xsdFilePath;
+            this.inputs = inputs;
+            this.threads = threads;
+        }
+    }
+    
+    // Inner class for server-mode arguments
+    private static class ServeArgs {
+        final int port;
+        final String bindAddress;
+        final List<String> xsdFilePaths;
+        final int threads;
+        
+        ServeArgs(int port, String bindAddress, List<String> xsdFilePaths, int threads) {
+            this.port = port;
+            this.bindAddress = bindAddress;
+            this.xsdFilePaths = xsdFilePaths;
+            this.threads = threads;
         }
     }
-}
\ No newline at end of file
+}
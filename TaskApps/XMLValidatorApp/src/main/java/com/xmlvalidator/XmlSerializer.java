@@ -0,0 +1,477 @@
+package com.xmlvalidator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Result;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * Writes DOM documents out, in place of creating a TransformerFactory and
+ * Transformer for every save.
+ *
+ * write() goes through an identity Transformer configured from a Preset.
+ * Each thread keeps one Transformer per preset, so the factory lookup and
+ * setup happen once per thread.
+ *
+ * writeDirect() skips TrAX and writes the tree straight out as markup. Its
+ * output is what write() gives with Preset.DEFAULT, byte for byte, and it
+ * is the faster choice when the output does not need indenting.
+ */
+public final class XmlSerializer {
+
+    /**
+     * Output settings, matching what the callers used to set by hand.
+     */
+    public enum Preset {
+        // TransformerFactory.newTransformer() defaults
+        DEFAULT(false, null, false),
+        // indent="yes", indent-amount 2 (XMLValidatorV2's CXMLProcessor and XmlModifier)
+        INDENT_2(true, "2", false),
+        // indent="yes", no XML declaration (DataProcessorApp's XMLProcessor)
+        INDENT_NO_DECLARATION(true, null, true);
+
+        private final Properties properties = new Properties();
+
+        Preset(boolean indent, String indentAmount, boolean omitDeclaration) {
+            properties.setProperty(OutputKeys.INDENT, indent ? "yes" : "no");
+            if (indentAmount != null) {
+                properties.setProperty("{http://xml.apache.org/xslt}indent-amount", indentAmount);
+            }
+            properties.setProperty(OutputKeys.OMIT_XML_DECLARATION, omitDeclaration ? "yes" : "no");
+        }
+    }
+
+    private static final ThreadLocal<Map<Preset, Transformer>> TRANSFORMERS =
+        ThreadLocal.withInitial(() -> new EnumMap<>(Preset.class));
+
+    private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORY =
+        ThreadLocal.withInitial(TransformerFactory::newInstance);
+
+    private XmlSerializer() {
+    }
+
+    public static void write(Node node, Result result, Preset preset) throws TransformerException {
+        transformer(preset).transform(new DOMSource(node), result);
+    }
+
+    public static void write(Node node, Path path, Preset preset) throws TransformerException, IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(node, new StreamResult(out), preset);
+        }
+    }
+
+    public static String toString(Node node, Preset preset) throws TransformerException {
+        StringWriter writer = new StringWriter();
+        write(node, new StreamResult(writer), preset);
+        return writer.toString();
+    }
+
+    private static Transformer transformer(Preset preset) throws TransformerConfigurationException {
+        Map<Preset, Transformer> transformers = TRANSFORMERS.get();
+        Transformer transformer = transformers.get(preset);
+        if (transformer == null) {
+            transformer = TRANSFORMER_FACTORY.get().newTransformer();
+            transformer.setOutputProperties(preset.properties);
+            transformers.put(preset, transformer);
+        }
+        return transformer;
+    }
+
+    public static void writeDirect(Document doc, Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            writeDirect(doc, out);
+        }
+    }
+
+    // UTF-8; the caller closes the stream
+    public static void writeDirect(Node node, OutputStream out) throws IOException {
+        // Markup is written a few chars at a time, and BufferedWriter takes a
+        // lock per call, so buffer here and encode in large blocks instead
+        Writer chars = new UnsyncBufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        new DirectWriter(chars).write(node);
+        chars.flush();
+    }
+
+    /**
+     * Writes a tree as markup, following the rules of the JDK identity
+     * Transformer with Preset.DEFAULT: a document's declaration carries
+     * standalone="no" unless it is standalone, namespace declarations come before
+     * the other attributes, childless elements are written as {@code <x/>},
+     * and characters are escaped the same way.
+     */
+    private static final class DirectWriter {
+        private final Writer out;
+
+        // In-scope namespace bindings as prefix, URI pairs. scopes[i] is the
+        // size of the list when the element at depth i was started.
+        private final List<String> bindings = new ArrayList<>();
+        private int[] scopes = new int[16];
+        private int depth;
+
+        // Attributes of the element being started, in output order
+        private final List<String> attributeNames = new ArrayList<>();
+        private final List<String> attributeValues = new ArrayList<>();
+        private boolean startTagOpen;
+
+        DirectWriter(Writer out) {
+            this.out = out;
+        }
+
+        // Walks the tree without recursion, so deep documents cannot overflow the stack
+        void write(Node root) throws IOException {
+            // standalone="no" unless the document says otherwise; left out when
+            // writing part of a document
+            if (root.getNodeType() == Node.DOCUMENT_NODE) {
+                Document doc = (Document) root;
+                out.write("<?xml version=\"");
+                out.write(doc.getXmlVersion());
+                out.write(doc.getXmlStandalone() ? "\" encoding=\"UTF-8\"?>" : "\" encoding=\"UTF-8\" standalone=\"no\"?>");
+            } else {
+                out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            }
+
+            Node node = root;
+            while (node != null) {
+                boolean descend = start(node);
+
+                if (descend && node.getFirstChild() != null) {
+                    node = node.getFirstChild();
+                    continue;
+                }
+
+                // Close finished elements until one has a next sibling
+                while (node != null) {
+                    end(node);
+                    if (node == root) {
+                        node = null;
+                    } else if (node.getNextSibling() != null) {
+                        node = node.getNextSibling();
+                        break;
+                    } else {
+                        node = node.getParentNode();
+                    }
+                }
+            }
+        }
+
+        // Returns true if the node's children should be written
+        private boolean start(Node node) throws IOException {
+            switch (node.getNodeType()) {
+                case Node.DOCUMENT_NODE:
+                case Node.DOCUMENT_FRAGMENT_NODE:
+                    return true;
+                case Node.ENTITY_REFERENCE_NODE:
+                    // Never written as &name;, which without the DOCTYPE would not be
+                    // well-formed. Only its children are, and like the Transformer's
+                    // output that is nothing for the references the JDK parser keeps.
+                    return true;
+                case Node.ELEMENT_NODE:
+                    closeStartTag();
+                    startElement((Element) node);
+                    return true;
+                case Node.TEXT_NODE:
+                    String text = node.getNodeValue();
+                    // An empty text node leaves <x/> as it is
+                    if (!text.isEmpty()) {
+                        closeStartTag();
+                        escape(text, false);
+                    }
+                    return false;
+                case Node.CDATA_SECTION_NODE:
+                    closeStartTag();
+                    cdata(node.getNodeValue());
+                    return false;
+                case Node.COMMENT_NODE:
+                    closeStartTag();
+                    comment(node.getNodeValue());
+                    return false;
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                    closeStartTag();
+                    ProcessingInstruction pi = (ProcessingInstruction) node;
+                    out.write("<?");
+                    out.write(pi.getTarget());
+                    if (!pi.getData().isEmpty()) {
+                        out.write(' ');
+                        out.write(pi.getData().replace("?>", "? >"));
+                    }
+                    out.write("?>");
+                    return false;
+                default:
+                    // The identity Transformer leaves out the DOCTYPE too
+                    return false;
+            }
+        }
+
+        private void end(Node node) throws IOException {
+            if (node.getNodeType() != Node.ELEMENT_NODE) {
+                return;
+            }
+            if (startTagOpen) {
+                out.write("/>");
+                startTagOpen = false;
+            } else {
+                out.write("</");
+                out.write(node.getNodeName());
+                out.write('>');
+            }
+            depth--;
+            bindings.subList(scopes[depth], bindings.size()).clear();
+        }
+
+        private void closeStartTag() throws IOException {
+            if (startTagOpen) {
+                out.write('>');
+                startTagOpen = false;
+            }
+        }
+
+        private void startElement(Element element) throws IOException {
+            if (depth == scopes.length) {
+                scopes = Arrays.copyOf(scopes, depth * 2);
+            }
+            scopes[depth++] = bindings.size();
+            attributeNames.clear();
+            attributeValues.clear();
+
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attribute = (Attr) attributes.item(i);
+                String name = attribute.getName();
+                if (name.equals(XMLConstants.XMLNS_ATTRIBUTE) || name.startsWith("xmlns:")) {
+                    declare(name.equals(XMLConstants.XMLNS_ATTRIBUTE) ? "" : name.substring(6), attribute.getValue());
+                }
+            }
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attribute = (Attr) attributes.item(i);
+                String name = attribute.getName();
+                if (name.equals(XMLConstants.XMLNS_ATTRIBUTE) || name.startsWith("xmlns:")) {
+                    continue;
+                }
+                // Attributes set with setAttributeNS carry no xmlns attribute either
+                String namespace = attribute.getNamespaceURI();
+                String prefix = attribute.getPrefix();
+                if (attribute.getLocalName() != null && namespace != null && prefix != null
+                        && !namespace.equals(namespaceOf(prefix))) {
+                    declare(prefix, namespace);
+                }
+                addAttribute(name, attribute.getValue());
+            }
+
+            // Elements created with createElementNS carry no xmlns attribute, so
+            // declare the namespace if the enclosing scope binds the prefix differently.
+            // Names from a parser that is not namespace aware are written as they are.
+            if (element.getLocalName() != null) {
+                String prefix = element.getPrefix() == null ? "" : element.getPrefix();
+                String namespace = element.getNamespaceURI() == null ? "" : element.getNamespaceURI();
+                if (!namespace.equals(namespaceOf(prefix))) {
+                    declare(prefix, namespace);
+                }
+            }
+
+            out.write('<');
+            out.write(element.getNodeName());
+            for (int i = 0; i < attributeNames.size(); i++) {
+                out.write(' ');
+                out.write(attributeNames.get(i));
+                out.write("=\"");
+                escape(attributeValues.get(i), true);
+                out.write('"');
+            }
+            startTagOpen = true;
+        }
+
+        private void declare(String prefix, String namespace) {
+            bindings.add(prefix);
+            bindings.add(namespace);
+            addAttribute(prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : "xmlns:" + prefix, namespace);
+        }
+
+        // A later value for the same name replaces the earlier one, as in the Transformer
+        private void addAttribute(String name, String value) {
+            int i = attributeNames.indexOf(name);
+            if (i >= 0) {
+                attributeValues.set(i, value);
+            } else {
+                attributeNames.add(name);
+                attributeValues.add(value);
+            }
+        }
+
+        private String namespaceOf(String prefix) {
+            for (int i = bindings.size() - 2; i >= 0; i -= 2) {
+                if (bindings.get(i).equals(prefix)) {
+                    return bindings.get(i + 1);
+                }
+            }
+            if (prefix.isEmpty()) {
+                return "";
+            }
+            return XMLConstants.XML_NS_PREFIX.equals(prefix) ? XMLConstants.XML_NS_URI : null;
+        }
+
+        // Text and attribute values. Both escape & < > and write characters
+        // outside the BMP and C0 controls as references; attributes also
+        // escape " tab and LF, text escapes DEL and the C1 controls. CR is a
+        // reference in both, so it survives line-end normalization.
+        private void escape(String s, boolean attribute) throws IOException {
+            int clean = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                String replacement;
+                int next = i + 1;
+
+                if (c == '&') {
+                    replacement = "&amp;";
+                } else if (c == '<') {
+                    replacement = "&lt;";
+                } else if (c == '>') {
+                    replacement = "&gt;";
+                } else if (c == '"' && attribute) {
+                    replacement = "&quot;";
+                } else if (c < 0x20 && (attribute || (c != '\t' && c != '\n'))) {
+                    replacement = "&#" + (int) c + ';';
+                } else if (c >= 0x7F && c <= 0x9F && !attribute) {
+                    replacement = "&#" + (int) c + ';';
+                } else if (Character.isSurrogate(c)) {
+                    if (!Character.isHighSurrogate(c) || next == s.length()
+                            || !Character.isLowSurrogate(s.charAt(next))) {
+                        throw new IOException("Invalid UTF-16 surrogate detected: " + Integer.toHexString(c));
+                    }
+                    replacement = "&#" + Character.toCodePoint(c, s.charAt(next)) + ';';
+                    next++;
+                } else {
+                    continue;
+                }
+
+                out.write(s, clean, i - clean);
+                out.write(replacement);
+                clean = next;
+                i = next - 1;
+            }
+            out.write(s, clean, s.length() - clean);
+        }
+
+        // A "]]>" in the data, or a control character, ends the section and starts another
+        private void cdata(String s) throws IOException {
+            out.write("<![CDATA[");
+            int clean = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == ']' && s.startsWith("]]>", i)) {
+                    out.write(s, clean, i + 2 - clean);
+                    out.write("]]><![CDATA[");
+                    clean = i + 2;
+                    i++;
+                } else if (c < 0x20 && c != '\t' && c != '\n' && c != '\r') {
+                    out.write(s, clean, i - clean);
+                    out.write("]]>&#" + (int) c + ";<![CDATA[");
+                    clean = i + 1;
+                }
+            }
+            out.write(s, clean, s.length() - clean);
+            out.write("]]>");
+        }
+
+        // "--" may not appear in a comment, nor may it end in "-"
+        private void comment(String s) throws IOException {
+            out.write("<!--");
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                out.write(c);
+                if (c == '-' && (i + 1 == s.length() || s.charAt(i + 1) == '-')) {
+                    out.write(' ');
+                }
+            }
+            out.write("-->");
+        }
+    }
+
+    // Unsynchronized buffer in front of a Writer
+    private static final class UnsyncBufferedWriter extends Writer {
+        private final Writer out;
+        private final char[] buffer = new char[32 * 1024];
+        private int count;
+
+        UnsyncBufferedWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (char) c;
+        }
+
+        @Override
+        public void write(char[] chars, int off, int len) throws IOException {
+            if (len > buffer.length - count) {
+                flushBuffer();
+                if (len > buffer.length) {
+                    out.write(chars, off, len);
+                    return;
+                }
+            }
+            System.arraycopy(chars, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (len > buffer.length - count) {
+                flushBuffer();
+                if (len > buffer.length) {
+                    out.write(str, off, len);
+                    return;
+                }
+            }
+            str.getChars(off, off + len, buffer, count);
+            count += len;
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
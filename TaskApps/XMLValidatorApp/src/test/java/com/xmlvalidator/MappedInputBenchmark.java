@@ -0,0 +1,104 @@
+package com.xmlvalidator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Compares parsing a file handed over as a java.io.File (the current path in
+ * every entry point) against parsing it through {@link MappedXmlInput}.
+ * A SAX parser with a trivial handler is used so that I/O and tokenizing
+ * dominate, not tree building.
+ *
+ * Usage: java -cp build:src/test/java com.xmlvalidator.MappedInputBenchmark [sizeMB] [iterations]
+ */
+public class MappedInputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path file = Files.createTempFile("mapped-bench", ".xml");
+        try {
+            writeTransactions(file, sizeMb * 1024L * 1024L);
+            System.out.printf("File: %s (%.1f MB), %d iterations each%n",
+                              file, Files.size(file) / (1024.0 * 1024.0), iterations);
+
+            SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+
+            // Warm-up so JIT and page cache are equal for both variants
+            parseFile(parser, file.toFile());
+            parseMapped(parser, file);
+
+            long fileNanos = 0;
+            long mappedNanos = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                parseFile(parser, file.toFile());
+                fileNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                parseMapped(parser, file);
+                mappedNanos += System.nanoTime() - start;
+            }
+
+            double mb = Files.size(file) / (1024.0 * 1024.0);
+            report("java.io.File", fileNanos / iterations, mb);
+            report("MappedXmlInput", mappedNanos / iterations, mb);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static int parseFile(SAXParser parser, File file) throws Exception {
+        CountingHandler handler = new CountingHandler();
+        parser.reset();
+        parser.parse(file, handler);
+        return handler.elements;
+    }
+
+    private static int parseMapped(SAXParser parser, Path file) throws Exception {
+        CountingHandler handler = new CountingHandler();
+        parser.reset();
+        try (InputStream in = MappedXmlInput.openStream(file)) {
+            parser.parse(MappedXmlInput.inputSource(in, file), handler);
+        }
+        return handler.elements;
+    }
+
+    private static void report(String label, long nanos, double mb) {
+        double ms = nanos / 1e6;
+        System.out.printf("%-16s %9.1f ms  %8.1f MB/s%n", label, ms, mb / (ms / 1000));
+    }
+
+    private static void writeTransactions(Path file, long targetBytes) throws Exception {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<TxInfAndSts>\n");
+            long written = 0;
+            for (int i = 0; written < targetBytes; i++) {
+                String tx = "  <OrgnlTxRef><IntrBkSttlmAmt Ccy=\"KES\">" + (i % 100000)
+                        + "</IntrBkSttlmAmt><SttlmInf><SttlmMtd>CLRG</SttlmMtd>"
+                        + "<ClrSys><Prtry>IPS</Prtry></ClrSys></SttlmInf></OrgnlTxRef>\n";
+                out.write(tx);
+                written += tx.length();
+            }
+            out.write("</TxInfAndSts>\n");
+        }
+    }
+
+    private static final class CountingHandler extends DefaultHandler {
+        int elements;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            elements++;
+        }
+    }
+}
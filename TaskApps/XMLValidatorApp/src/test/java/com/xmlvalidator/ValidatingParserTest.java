@@ -0,0 +1,98 @@
+package com.xmlvalidator;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.xml.validation.Validator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Checks {@link ValidatingParser} against the plain {@link Validator} path:
+ * both parse modes must report the same errors, a fatal error must end up
+ * in the report rather than being thrown, and an exception thrown by the
+ * caller's ContentHandler must reach the caller even when the document
+ * also has validation errors.
+ *
+ * Usage (after ./build.sh):
+ *   javac -cp build -d build/test src/test/java/com/xmlvalidator/ValidatingParserTest.java
+ *   java -cp build:build/test com.xmlvalidator.ValidatingParserTest
+ *
+ * Exits with an AssertionError on failure.
+ */
+public class ValidatingParserTest {
+
+    private static final File XSD = new File("test_files/book/book.xsd");
+
+    public static void main(String[] args) throws Exception {
+        ValidatingParser parser = ValidatingParser.forSchema(XSD);
+
+        Path invalid = Files.createTempFile("invalid-year", ".xml");
+        Files.writeString(invalid, "<book xmlns=\"http://example.com/books\"><title>t</title>"
+                + "<author>a</author><year>x</year><price>1</price></book>");
+        try {
+            for (File file : List.of(new File("test_files/book/book.xml"), invalid.toFile(),
+                                     new File("test_files/book/invalid_book.xml"))) {
+                List<String> expected = validate(file);
+
+                ValidatingParser.Result dom = parser.parse(file);
+                check(dom.getReport().getErrors().equals(expected),
+                      "DOM mode report differs for " + file + ": " + dom.getReport().getErrors());
+                check(dom.isValid() == expected.isEmpty(), "DOM mode validity differs for " + file);
+
+                XMLValidationErrorHandler sax = parser.parse(file, new DefaultHandler());
+                check(sax.getErrors().equals(expected),
+                      "SAX mode report differs for " + file + ": " + sax.getErrors());
+            }
+
+            // Schema errors leave a usable document; a fatal error leaves none
+            check(parser.parse(invalid.toFile()).getDocument() != null,
+                  "schema-invalid but well-formed file should still produce a document");
+            check(parser.parse(new File("test_files/book/invalid_book.xml")).getDocument() == null,
+                  "file with a fatal error should produce no document");
+
+            // The caller's own exception must not be swallowed because the
+            // document happens to have errors too
+            SAXException downstream = new SAXException("downstream failure");
+            try {
+                parser.parse(invalid.toFile(), new DefaultHandler() {
+                    @Override
+                    public void endDocument() throws SAXException {
+                        throw downstream;
+                    }
+                });
+                throw new AssertionError("downstream exception was swallowed");
+            } catch (SAXException e) {
+                check(e == downstream, "expected the downstream exception, got " + e);
+            }
+
+            System.out.println("ValidatingParserTest passed");
+        } finally {
+            Files.deleteIfExists(invalid);
+        }
+    }
+
+    // The report the Validator path produces for the same file
+    private static List<String> validate(File file) throws Exception {
+        ValidatorPool validators = SchemaCache.getShared().getValidatorPool(XSD);
+        Validator validator = validators.borrow();
+        XMLValidationErrorHandler report = XMLValidationErrorHandler.fromSystemProperties(false);
+        validator.setErrorHandler(report);
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            validator.validate(MappedXmlInput.streamSource(in, file.toPath()));
+        } catch (SAXException e) {
+            // Fatal errors are in the report
+        } finally {
+            validators.release(validator);
+        }
+        return report.getErrors();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.xmlvalidator;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Regression check for the validation server: a posted document that
+ * declares an external entity pointing at a local file must not get that
+ * file's contents back in the response, and the server must only listen
+ * on the loopback address by default.
+ *
+ * Usage (after ./build.sh):
+ *   javac -cp build -d build/test src/test/java/com/xmlvalidator/ValidationServerXxeTest.java
+ *   java -cp build:build/test com.xmlvalidator.ValidationServerXxeTest
+ *
+ * Exits with an AssertionError on failure.
+ */
+public class ValidationServerXxeTest {
+
+    private static final String SECRET = "xxe-canary-" + System.nanoTime();
+
+    public static void main(String[] args) throws Exception {
+        Path secret = Files.createTempFile("xxe-secret", ".txt");
+        Files.writeString(secret, SECRET);
+
+        ValidationServer server = new ValidationServer(0, List.of(new File("test_files/book/book.xsd")), 2);
+        server.start();
+        try {
+            check(server.getAddress().getAddress().isLoopbackAddress(),
+                  "server should bind to loopback by default, bound to " + server.getAddress());
+
+            // xs:int errors quote the offending value, so a resolved entity would show up in "errors"
+            HttpResponse<String> external = post(server, "<?xml version=\"1.0\"?>\n"
+                    + "<!DOCTYPE book [<!ENTITY leak SYSTEM \"" + secret.toUri() + "\">]>\n"
+                    + "<book xmlns=\"http://example.com/books\"><title>t</title><author>a</author>"
+                    + "<year>&leak;</year><price>1</price></book>");
+            check(!external.body().contains(SECRET),
+                  "external entity contents leaked into the response: " + external.body());
+            check(external.body().contains("\"valid\":false"),
+                  "document with a blocked external entity should be invalid: " + external.body());
+
+            HttpResponse<String> valid = post(server, Files.readString(Path.of("test_files/book/book.xml")));
+            check(valid.statusCode() == 200 && valid.body().contains("\"valid\":true"),
+                  "plain document should still validate: " + valid.body());
+
+            System.out.println("ValidationServerXxeTest passed");
+        } finally {
+            server.stop();
+            Files.deleteIfExists(secret);
+        }
+    }
+
+    private static HttpResponse<String> post(ValidationServer server, String body) throws Exception {
+        URI uri = URI.create("http://" + server.getAddress().getAddress().getHostAddress()
+                + ":" + server.getAddress().getPort() + "/validate");
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+#!/bin/bash
+
+# XML Validator Startup Benchmark
+# Measures time-to-first-result (JVM start -> validation result printed -> exit)
+# for a single validation, with and without the class-data-sharing archive.
+#
+# Usage: ./startup-bench.sh [runs]
+# Build first with: ./build.sh --cds
+
+set -e
+
+RUNS="${1:-20}"
+JAR_PATH="build/XMLValidator.jar"
+CDS_ARCHIVE="build/XMLValidator.jsa"
+XML_FILE="test_files/book/book.xml"
+XSD_FILE="test_files/book/book.xsd"
+
+if [ ! -f "$JAR_PATH" ]; then
+    echo "ERROR: JAR file not found at $JAR_PATH"
+    echo "Please run the build script first: ./build.sh --cds"
+    exit 1
+fi
+
+# Runs the given command RUNS times and prints the average and best wall time in ms
+measure() {
+    local label="$1"
+    shift
+    local total=0
+    local best=0
+
+    # One untimed run so the file cache is warm for every variant
+    "$@" > /dev/null 2>&1
+
+    for ((i = 0; i < RUNS; i++)); do
+        local start=$(date +%s%N)
+        "$@" > /dev/null 2>&1
+        local end=$(date +%s%N)
+        local ms=$(( (end - start) / 1000000 ))
+        total=$((total + ms))
+        if [ $best -eq 0 ] || [ $ms -lt $best ]; then
+            best=$ms
+        fi
+    done
+
+    printf "%-28s avg %5d ms   best %5d ms\n" "$label" $((total / RUNS)) $best
+}
+
+echo "Time to first result over $RUNS runs ($XML_FILE)"
+echo
+
+measure "Default (JDK CDS only)" \
+        java -jar "$JAR_PATH" -xml "$XML_FILE" -xsd "$XSD_FILE"
+
+measure "No class sharing" \
+        java -Xshare:off -jar "$JAR_PATH" -xml "$XML_FILE" -xsd "$XSD_FILE"
+
+if [ -f "$CDS_ARCHIVE" ]; then
+    measure "AppCDS archive" \
+            java -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$JAR_PATH" -xml "$XML_FILE" -xsd "$XSD_FILE"
+
+    measure "AppCDS + TieredStopAtLevel=1" \
+            java -XX:SharedArchiveFile="$CDS_ARCHIVE" -XX:TieredStopAtLevel=1 -jar "$JAR_PATH" -xml "$XML_FILE" -xsd "$XSD_FILE"
+else
+    echo "(No $CDS_ARCHIVE - run ./build.sh --cds to include the AppCDS numbers)"
+fi
@@ -1,17 +1,21 @@
 import javax.xml.xpath.*;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.*;
-import javax.xml.transform.stream.*;
-import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import com.xmlvalidator.MappedXmlInput;
+import com.xmlvalidator.XmlSerializer;
 
 public class CXMLProcessor {
     public static void main(String[] args) throws Exception {
         // Load the document
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(new File("pacs.008.xml"));
+        Path input = Path.of("pacs.008.xml");
+        Document doc;
+        try (InputStream in = MappedXmlInput.openStream(input)) {
+            doc = builder.parse(MappedXmlInput.inputSource(in, input));
+        }
         
         // 1. Read values with XPath
         XPathFactory xPathFactory = XPathFactory.newInstance();
@@ -60,13 +64,6 @@ public class CXMLProcessor {
     }
     
     private static void saveDocument(Document doc, String filename) throws Exception {
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-        
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(new File(filename));
-        transformer.transform(source, result);
+        XmlSerializer.write(doc, Path.of(filename), XmlSerializer.Preset.INDENT_2);
     }
 }
\ No newline at end of file
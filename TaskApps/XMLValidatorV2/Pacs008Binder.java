@@ -0,0 +1,273 @@
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import com.xmlvalidator.MappedXmlInput;
+
+/**
+ * Binds a pacs.008 status report to Pacs008Message in one StAX pass.
+ *
+ * Each field is picked up when its element starts, using the names of the
+ * enclosing elements to tell e.g. InstgAgt/.../Id from CdtrAcct/.../Id, so
+ * there is no tree and no XPath evaluation. IntrBkSttlmAmt is read from the
+ * parser's character buffer straight into a long.
+ *
+ * Values follow the types in test_files/pac008_sample.xsd: CreDtTm and
+ * OrgnlCreDtTm are xs:dateTime, whose offset is optional, and
+ * IntrBkSttlmAmt is xs:decimal, which may be signed and padded with zeros.
+ *
+ * Not thread-safe; use one binder per thread.
+ */
+public class Pacs008Binder {
+
+    static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L
+    };
+
+    private final XMLInputFactory inputFactory;
+    private final Map<String, String> currencies = new HashMap<>();
+    private final Map<String, Integer> fractionDigits = new HashMap<>();
+
+    // Local names of the open elements
+    private String[] stack = new String[16];
+    private int depth;
+
+    public Pacs008Binder() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    }
+
+    /**
+     * Bind the whole file, keeping every transaction.
+     */
+    public Pacs008Message bind(Path path) throws Exception {
+        Pacs008Message message = new Pacs008Message();
+        try (InputStream in = MappedXmlInput.openStream(path)) {
+            bind(in, message, tx -> message.transactions.add(tx.copy()));
+        }
+        return message;
+    }
+
+    /**
+     * Bind the header and hand each transaction to {@code handler} as its
+     * OrgnlTxRef closes. The same Transaction instance is reused for every
+     * call, so the handler must copy anything it wants to keep.
+     */
+    public Pacs008Message bind(Path path, Consumer<Pacs008Message.Transaction> handler) throws Exception {
+        Pacs008Message message = new Pacs008Message();
+        try (InputStream in = MappedXmlInput.openStream(path)) {
+            bind(in, message, handler);
+        }
+        return message;
+    }
+
+    public void bind(InputStream in, Pacs008Message message,
+                     Consumer<Pacs008Message.Transaction> handler) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+        Pacs008Message.Transaction tx = new Pacs008Message.Transaction();
+        depth = 0;
+
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    // Leaf fields consume their end tag, so they are not pushed
+                    if (!bindField(reader, name, message, tx)) {
+                        push(name);
+                        if ("OrgnlTxRef".equals(name)) {
+                            tx.clear();
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if ("OrgnlTxRef".equals(reader.getLocalName())) {
+                        handler.accept(tx);
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Returns true if the element was a field and has been read up to its end tag
+    private boolean bindField(XMLStreamReader reader, String name,
+                              Pacs008Message message, Pacs008Message.Transaction tx) throws XMLStreamException {
+        switch (name) {
+            case "MsgId":
+                if (!parentIs(0, "GrpHdr")) {
+                    return false;
+                }
+                message.msgId = reader.getElementText().trim();
+                return true;
+            case "CreDtTm":
+                if (!parentIs(0, "GrpHdr")) {
+                    return false;
+                }
+                TemporalAccessor creDtTm = parseDateTime(reader);
+                message.creDtTm = LocalDateTime.from(creDtTm);
+                message.creDtTmOffset = offsetOf(creDtTm);
+                return true;
+            case "OrgnlMsgId":
+                message.orgnlMsgId = reader.getElementText().trim();
+                return true;
+            case "OrgnlMsgNmId":
+                message.orgnlMsgNmId = reader.getElementText().trim();
+                return true;
+            case "OrgnlCreDtTm":
+                TemporalAccessor orgnlCreDtTm = parseDateTime(reader);
+                message.orgnlCreDtTm = LocalDateTime.from(orgnlCreDtTm);
+                message.orgnlCreDtTmOffset = offsetOf(orgnlCreDtTm);
+                return true;
+            case "IntrBkSttlmAmt":
+                bindAmount(reader, tx);
+                return true;
+            case "SttlmMtd":
+                tx.sttlmMtd = reader.getElementText().trim();
+                return true;
+            case "Prtry":
+                if (parentIs(0, "ClrSys")) {
+                    tx.clrSysPrtry = reader.getElementText().trim();
+                    return true;
+                }
+                if (parentIs(0, "SvcLvl")) {
+                    tx.svcLvlPrtry = reader.getElementText().trim();
+                    return true;
+                }
+                return false;
+            case "Id":
+                // .../X/FinInstnId/Othr/Id for the agents, CdtrAcct/Id/Othr/Id for the account
+                if (!parentIs(0, "Othr")) {
+                    return false;
+                }
+                if (parentIs(1, "FinInstnId") && parentIs(2, "InstgAgt")) {
+                    message.instgAgtId = reader.getElementText().trim();
+                } else if (parentIs(1, "FinInstnId") && parentIs(2, "InstdAgt")) {
+                    message.instdAgtId = reader.getElementText().trim();
+                } else if (parentIs(1, "Id") && parentIs(2, "CdtrAcct")) {
+                    tx.cdtrAcctId = reader.getElementText().trim();
+                } else {
+                    return false;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // xs:dateTime, e.g. 2024-12-17T09:22:47.934Z or 2024-12-17T09:22:47 with no offset
+    private static TemporalAccessor parseDateTime(XMLStreamReader reader) throws XMLStreamException {
+        String text = reader.getElementText().trim();
+        try {
+            return DateTimeFormatter.ISO_DATE_TIME.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new XMLStreamException("Invalid xs:dateTime '" + text + "'", reader.getLocation(), e);
+        }
+    }
+
+    private static ZoneOffset offsetOf(TemporalAccessor dateTime) {
+        return dateTime.isSupported(ChronoField.OFFSET_SECONDS) ? ZoneOffset.from(dateTime) : null;
+    }
+
+    // Reads e.g. <IntrBkSttlmAmt Ccy="KES">57.5</IntrBkSttlmAmt> as 5750 with 2 fraction digits.
+    // As in xs:decimal, a leading + or - and zeros past the currency's digits are allowed.
+    private void bindAmount(XMLStreamReader reader, Pacs008Message.Transaction tx) throws XMLStreamException {
+        String ccy = reader.getAttributeValue(null, "Ccy");
+        if (ccy != null) {
+            ccy = currencies.computeIfAbsent(ccy, c -> c);
+        }
+        int digits = fractionDigitsOf(ccy);
+
+        long value = 0;
+        int fraction = -1;
+        boolean seenDigit = false;
+        boolean seenSign = false;
+        boolean negative = false;
+
+        while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+            if (!reader.isCharacters()) {
+                continue;
+            }
+            char[] chars = reader.getTextCharacters();
+            int end = reader.getTextStart() + reader.getTextLength();
+
+            for (int i = reader.getTextStart(); i < end; i++) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    seenDigit = true;
+                    if (fraction >= 0 && fraction == digits) {
+                        // Beyond the currency's minor unit only zeros may follow
+                        if (c != '0') {
+                            throw new XMLStreamException("IntrBkSttlmAmt has more than " + digits
+                                + " decimal places for " + ccy, reader.getLocation());
+                        }
+                        continue;
+                    }
+                    if (fraction >= 0) {
+                        fraction++;
+                    }
+                    value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                } else if ((c == '+' || c == '-') && !seenSign && !seenDigit && fraction < 0) {
+                    seenSign = true;
+                    negative = c == '-';
+                } else if (c == '.' && fraction < 0) {
+                    fraction = 0;
+                } else if (!Character.isWhitespace(c)) {
+                    throw new XMLStreamException("Invalid IntrBkSttlmAmt character '" + c + "'",
+                        reader.getLocation());
+                }
+            }
+        }
+
+        if (!seenDigit) {
+            throw new XMLStreamException("IntrBkSttlmAmt is empty", reader.getLocation());
+        }
+
+        int missing = digits - Math.max(fraction, 0);
+        long amount = Math.multiplyExact(value, POWERS_OF_TEN[missing]);
+        tx.amountMinor = negative ? -amount : amount;
+        tx.currency = ccy;
+        tx.fractionDigits = digits;
+    }
+
+    private int fractionDigitsOf(String ccy) {
+        if (ccy == null) {
+            return 2;
+        }
+        return fractionDigits.computeIfAbsent(ccy, c -> {
+            try {
+                return Math.max(0, Currency.getInstance(c).getDefaultFractionDigits());
+            } catch (IllegalArgumentException e) {
+                return 2;
+            }
+        });
+    }
+
+    private void push(String name) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = name;
+    }
+
+    // n = 0 is the direct parent of the element being read
+    private boolean parentIs(int n, String name) {
+        int index = depth - 1 - n;
+        return index >= 0 && name.equals(stack[index]);
+    }
+}
@@ -0,0 +1,151 @@
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.xmlvalidator.MappedXmlInput;
+
+/**
+ * Compares reading pacs.008 fields with the XmlProcessor getValue/getAttribute
+ * helpers (DOM + one XPath evaluation per field) against Pacs008Binder.
+ *
+ * Two cases: the 12 fields XmlProcessor prints, on the sample file, and every
+ * transaction's fields on a generated file with many OrgnlTxRef elements.
+ * Time and bytes allocated are per run. The per-transaction XPath case grows
+ * with the square of the file size (each evaluate builds a DTM over the
+ * whole document), so the default transaction count is kept small.
+ *
+ * Usage: java Pacs008BindingBenchmark [sample.xml] [transactions] [iterations]
+ */
+public class Pacs008BindingBenchmark {
+
+    private static final String[] HEADER_PATHS = {
+        "//MsgId", "//CreDtTm",
+        "//InstgAgt/FinInstnId/Othr/Id", "//InstdAgt/FinInstnId/Othr/Id",
+        "//OrgnlMsgId", "//OrgnlMsgNmId", "//OrgnlCreDtTm",
+        "//IntrBkSttlmAmt", "//SttlmMtd", "//ClrSys/Prtry", "//SvcLvl/Prtry"
+    };
+
+    private static final String[] TX_PATHS = {
+        "IntrBkSttlmAmt", "IntrBkSttlmAmt/@Ccy", "SttlmInf/SttlmMtd",
+        "SttlmInf/ClrSys/Prtry", "PmtTpInf/SvcLvl/Prtry"
+    };
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        Path sample = Path.of(args.length > 0 ? args[0] : "test_files/pac008_sample.xml");
+        int transactions = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        Path generated = Files.createTempFile("pacs008-bench", ".xml");
+        try {
+            writeFile(generated, transactions);
+
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            XPath xpath = XPathFactory.newInstance().newXPath();
+            Pacs008Binder binder = new Pacs008Binder();
+
+            System.out.printf("%-28s %14s %14s%n", "", "time (ms)", "allocated (KB)");
+
+            run("header, xpath helpers", iterations * 100, () -> headerWithXPath(builder, xpath, sample));
+            run("header, binder", iterations * 100, () -> headerWithBinder(binder, sample));
+
+            System.out.println();
+            System.out.println(transactions + " transactions, " + iterations + " iterations");
+            run("all tx, xpath helpers", iterations, () -> allWithXPath(builder, xpath, generated));
+            run("all tx, binder", iterations, () -> allWithBinder(binder, generated));
+        } finally {
+            Files.deleteIfExists(generated);
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static void run(String label, int iterations, Task task) throws Exception {
+        // warm-up
+        for (int i = 0; i < Math.max(1, iterations / 5); i++) {
+            task.run();
+        }
+
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            task.run();
+        }
+        double ms = (System.nanoTime() - start) / 1e6 / iterations;
+        double kb = (THREADS.getCurrentThreadAllocatedBytes() - bytes) / 1024.0 / iterations;
+
+        System.out.printf("%-28s %14.3f %14.1f%n", label, ms, kb);
+    }
+
+    private static Document parse(DocumentBuilder builder, Path path) throws Exception {
+        try (InputStream in = MappedXmlInput.openStream(path)) {
+            return builder.parse(MappedXmlInput.inputSource(in, path));
+        }
+    }
+
+    private static void headerWithXPath(DocumentBuilder builder, XPath xpath, Path path) throws Exception {
+        Document doc = parse(builder, path);
+        for (String expression : HEADER_PATHS) {
+            sink += XmlProcessor.getValue(doc, xpath, expression).length();
+        }
+        sink += XmlProcessor.getAttribute(doc, xpath, "//IntrBkSttlmAmt/@Ccy").length();
+    }
+
+    private static void headerWithBinder(Pacs008Binder binder, Path path) throws Exception {
+        Pacs008Message message = binder.bind(path, tx -> sink += tx.getAmountMinor());
+        sink += message.getMsgId().length();
+    }
+
+    private static void allWithXPath(DocumentBuilder builder, XPath xpath, Path path) throws Exception {
+        Document doc = parse(builder, path);
+        NodeList refs = (NodeList) xpath.evaluate("//OrgnlTxRef", doc, XPathConstants.NODESET);
+        for (int i = 0; i < refs.getLength(); i++) {
+            Node ref = refs.item(i);
+            for (String expression : TX_PATHS) {
+                sink += xpath.evaluate(expression, ref).length();
+            }
+        }
+    }
+
+    private static void allWithBinder(Pacs008Binder binder, Path path) throws Exception {
+        binder.bind(path, tx -> sink += tx.getAmountMinor() + tx.getSttlmMtd().length());
+    }
+
+    // Same layout as test_files/pac008_sample.xml, repeating TxInfAndSts
+    private static void writeFile(Path path, int transactions) throws Exception {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<FIToFIPmtStsRpt>\n");
+            out.write("  <GrpHdr><MsgId>9d3b58b4542b41768d1ae5a720a4190c</MsgId>"
+                + "<CreDtTm>2024-12-17T09:22:47.934Z</CreDtTm>"
+                + "<InstgAgt><FinInstnId><Othr><Id>9999</Id></Othr></FinInstnId></InstgAgt>"
+                + "<InstdAgt><FinInstnId><Othr><Id>0222</Id></Othr></FinInstnId></InstdAgt></GrpHdr>\n");
+            out.write("  <OrgnlGrpInfAndSts><OrgnlMsgId>20241217092544095847</OrgnlMsgId>"
+                + "<OrgnlMsgNmId>pacs.008</OrgnlMsgNmId>"
+                + "<OrgnlCreDtTm>2024-12-17T09:25:59.150Z</OrgnlCreDtTm></OrgnlGrpInfAndSts>\n");
+            for (int i = 0; i < transactions; i++) {
+                out.write("  <TxInfAndSts><OrgnlTxRef><IntrBkSttlmAmt Ccy=\"KES\">"
+                    + (i % 100_000) + "." + (i % 100) + "</IntrBkSttlmAmt>"
+                    + "<SttlmInf><SttlmMtd>CLRG</SttlmMtd><ClrSys><Prtry>IPS</Prtry></ClrSys></SttlmInf>"
+                    + "<PmtTpInf><SvcLvl><Prtry>P2PT</Prtry></SvcLvl></PmtTpInf>"
+                    + "</OrgnlTxRef></TxInfAndSts>\n");
+            }
+            out.write("</FIToFIPmtStsRpt>\n");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed view of the fields XmlProcessor and CXMLProcessor read from a
+ * pacs.008 status report. Filled in by Pacs008Binder.
+ *
+ * Amounts are kept as a long in minor units (cents for KES) together with
+ * the currency code, so reading them never goes through String or BigDecimal.
+ *
+ * Timestamps are xs:dateTime, where the offset is optional, so each one is
+ * kept as the date and time as written plus its offset, which is null when
+ * the file gave none.
+ */
+public class Pacs008Message {
+
+    // GrpHdr
+    String msgId;
+    LocalDateTime creDtTm;
+    ZoneOffset creDtTmOffset;
+    String instgAgtId;
+    String instdAgtId;
+
+    // OrgnlGrpInfAndSts
+    String orgnlMsgId;
+    String orgnlMsgNmId;
+    LocalDateTime orgnlCreDtTm;
+    ZoneOffset orgnlCreDtTmOffset;
+
+    final List<Transaction> transactions = new ArrayList<>();
+
+    public String getMsgId() {
+        return msgId;
+    }
+
+    public LocalDateTime getCreDtTm() {
+        return creDtTm;
+    }
+
+    // Null when CreDtTm had no offset
+    public ZoneOffset getCreDtTmOffset() {
+        return creDtTmOffset;
+    }
+
+    public String getInstgAgtId() {
+        return instgAgtId;
+    }
+
+    public String getInstdAgtId() {
+        return instdAgtId;
+    }
+
+    public String getOrgnlMsgId() {
+        return orgnlMsgId;
+    }
+
+    public String getOrgnlMsgNmId() {
+        return orgnlMsgNmId;
+    }
+
+    public LocalDateTime getOrgnlCreDtTm() {
+        return orgnlCreDtTm;
+    }
+
+    // Null when OrgnlCreDtTm had no offset
+    public ZoneOffset getOrgnlCreDtTmOffset() {
+        return orgnlCreDtTmOffset;
+    }
+
+    // Empty when the message was bound with a per-transaction callback
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    /**
+     * One OrgnlTxRef. Mutable so the streaming binder can reuse a single
+     * instance for every transaction in the file.
+     */
+    public static class Transaction {
+        long amountMinor;
+        String currency;
+        int fractionDigits;
+        String sttlmMtd;
+        String clrSysPrtry;
+        String svcLvlPrtry;
+        String cdtrAcctId;
+
+        void clear() {
+            amountMinor = 0;
+            currency = null;
+            fractionDigits = 0;
+            sttlmMtd = null;
+            clrSysPrtry = null;
+            svcLvlPrtry = null;
+            cdtrAcctId = null;
+        }
+
+        Transaction copy() {
+            Transaction copy = new Transaction();
+            copy.amountMinor = amountMinor;
+            copy.currency = currency;
+            copy.fractionDigits = fractionDigits;
+            copy.sttlmMtd = sttlmMtd;
+            copy.clrSysPrtry = clrSysPrtry;
+            copy.svcLvlPrtry = svcLvlPrtry;
+            copy.cdtrAcctId = cdtrAcctId;
+            return copy;
+        }
+
+        // IntrBkSttlmAmt in minor units of the currency
+        public long getAmountMinor() {
+            return amountMinor;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public int getFractionDigits() {
+            return fractionDigits;
+        }
+
+        public String getSttlmMtd() {
+            return sttlmMtd;
+        }
+
+        public String getClrSysPrtry() {
+            return clrSysPrtry;
+        }
+
+        public String getSvcLvlPrtry() {
+            return svcLvlPrtry;
+        }
+
+        public String getCdtrAcctId() {
+            return cdtrAcctId;
+        }
+
+        // Amount as written in the file, e.g. 57.00
+        public String formatAmount() {
+            if (fractionDigits == 0) {
+                return Long.toString(amountMinor);
+            }
+            long scale = Pacs008Binder.POWERS_OF_TEN[fractionDigits];
+            String fraction = Long.toString(Math.abs(amountMinor % scale));
+            StringBuilder sb = new StringBuilder();
+            if (amountMinor < 0) {
+                sb.append('-');
+            }
+            sb.append(Math.abs(amountMinor / scale)).append('.');
+            for (int i = fraction.length(); i < fractionDigits; i++) {
+                sb.append('0');
+            }
+            return sb.append(fraction).toString();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.DTD;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import com.xmlvalidator.MappedXmlInput;
+
+/**
+ * Parallel version of StreamingPacsProcessor for large batch files.
+ *
+ * One thread streams the input and cuts it into chunks of {@code chunkSize}
+ * TxInfAndSts elements; everything between them (header, trailer) becomes a
+ * chunk of its own. Transaction chunks are enriched and serialized on a
+ * ForkJoinPool, and a ReorderBuffer writes all chunks back in file order.
+ * The buffer also bounds how many chunks are in memory at once, so the file
+ * is never loaded whole.
+ *
+ * Usage: java ParallelPacsProcessor input.xml output.xml [chunkSize] [threads] [creditorAccountId]
+ */
+public class ParallelPacsProcessor {
+
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final String creditorAccountId;
+    private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    // XMLEventFactory keeps per-instance state, so each worker has its own
+    private final ThreadLocal<XMLEventFactory> eventFactories =
+        ThreadLocal.withInitial(XMLEventFactory::newInstance);
+
+    private final AtomicLong transactionCount = new AtomicLong();
+    private final AtomicLong enrichedCount = new AtomicLong();
+
+    public ParallelPacsProcessor(int chunkSize, ForkJoinPool pool, String creditorAccountId) {
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        this.creditorAccountId = creditorAccountId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java ParallelPacsProcessor input.xml output.xml [chunkSize] [threads] [creditorAccountId]");
+            return;
+        }
+        Path input = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        int chunkSize = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        String accountId = args.length > 4 ? args[4] : "";
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ParallelPacsProcessor processor = new ParallelPacsProcessor(chunkSize, pool, accountId);
+
+            long start = System.nanoTime();
+            processor.process(input, output);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println("Transactions: " + processor.getTransactionCount());
+            System.out.println("CdtrAcct added: " + processor.getEnrichedCount());
+            System.out.printf("Time: %.2f s (%d threads, %d per chunk)%n", seconds, threads, chunkSize);
+            System.out.println("Output saved to: " + output);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void process(Path input, Path output) throws Exception {
+        transactionCount.set(0);
+        enrichedCount.set(0);
+
+        try (InputStream in = MappedXmlInput.openStream(input);
+             OutputStream out = Files.newOutputStream(output)) {
+
+            // Enough chunks in flight to keep every worker busy while one is slow
+            ReorderBuffer buffer = new ReorderBuffer(out, pool.getParallelism() * 4);
+            XMLEventReader reader = inputFactory.createXMLEventReader(in);
+
+            List<XMLEvent> passthrough = new ArrayList<>();
+            List<XMLEvent> chunk = new ArrayList<>();
+            int chunkTransactions = 0;
+            int txDepth = 0;
+
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+
+                    if (txDepth > 0) {
+                        chunk.add(event);
+                        if (event.isStartElement()) {
+                            txDepth++;
+                        } else if (event.isEndElement() && --txDepth == 0) {
+                            if (++chunkTransactions == chunkSize) {
+                                submit(buffer, chunk);
+                                chunk = new ArrayList<>();
+                                chunkTransactions = 0;
+                            }
+                        }
+                        continue;
+                    }
+
+                    if (event.isStartElement()
+                            && "TxInfAndSts".equals(event.asStartElement().getName().getLocalPart())) {
+                        if (!passthrough.isEmpty()) {
+                            writeNow(buffer, passthrough);
+                            passthrough = new ArrayList<>();
+                        }
+                        chunk.add(event);
+                        txDepth = 1;
+                    } else if (chunkTransactions > 0 && isWhitespace(event)) {
+                        // Keep the indentation between transactions with them
+                        chunk.add(event);
+                    } else {
+                        if (chunkTransactions > 0) {
+                            submit(buffer, chunk);
+                            chunk = new ArrayList<>();
+                            chunkTransactions = 0;
+                        }
+                        passthrough.add(event);
+                    }
+                }
+
+                if (chunkTransactions > 0) {
+                    submit(buffer, chunk);
+                }
+                if (!passthrough.isEmpty()) {
+                    writeNow(buffer, passthrough);
+                }
+            } catch (Exception e) {
+                buffer.fail(e);
+                throw e;
+            } finally {
+                reader.close();
+            }
+
+            buffer.awaitWritten();
+        }
+    }
+
+    private static boolean isWhitespace(XMLEvent event) {
+        return event.isCharacters() && event.asCharacters().isWhiteSpace();
+    }
+
+    // Header and trailer are serialized on the reader thread
+    private void writeNow(ReorderBuffer buffer, List<XMLEvent> events) throws Exception {
+        long seq = buffer.reserve();
+        buffer.complete(seq, serialize(events));
+    }
+
+    private void submit(ReorderBuffer buffer, List<XMLEvent> events) throws Exception {
+        long seq = buffer.reserve();
+        CompletableFuture
+            .supplyAsync(() -> enrich(events), pool)
+            .whenComplete((bytes, error) -> {
+                if (error != null) {
+                    buffer.fail(error);
+                } else {
+                    buffer.complete(seq, bytes);
+                }
+            });
+    }
+
+    // Same rule as StreamingPacsProcessor: add CdtrAcct to each OrgnlTxRef that has none
+    private byte[] enrich(List<XMLEvent> events) {
+        XMLEventFactory eventFactory = eventFactories.get();
+        List<XMLEvent> result = new ArrayList<>(events.size() + 16);
+        Deque<String> open = new ArrayDeque<>();
+        boolean hasCdtrAcct = false;
+
+        for (XMLEvent event : events) {
+            if (event.isStartElement()) {
+                String name = event.asStartElement().getName().getLocalPart();
+                String parent = open.peek();
+                open.push(name);
+
+                if ("OrgnlTxRef".equals(name)) {
+                    transactionCount.incrementAndGet();
+                    hasCdtrAcct = false;
+                } else if ("CdtrAcct".equals(name) && "OrgnlTxRef".equals(parent)) {
+                    hasCdtrAcct = true;
+                }
+            } else if (event.isEndElement()) {
+                QName name = event.asEndElement().getName();
+                if ("OrgnlTxRef".equals(name.getLocalPart()) && !hasCdtrAcct) {
+                    result.addAll(StreamingPacsProcessor.cdtrAcctEvents(eventFactory, name, creditorAccountId));
+                    enrichedCount.incrementAndGet();
+                }
+                open.pop();
+            }
+            result.add(event);
+        }
+
+        return serialize(result);
+    }
+
+    // Events are written out by hand rather than through an XMLEventWriter:
+    // a chunk starts and ends inside the root element, which a writer that
+    // has not seen the enclosing start tags would reject.
+    static byte[] serialize(List<XMLEvent> events) {
+        StringBuilder sb = new StringBuilder(events.size() * 32);
+        for (XMLEvent event : events) {
+            writeEvent(event, sb);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void writeEvent(XMLEvent event, StringBuilder sb) {
+        switch (event.getEventType()) {
+            case XMLStreamConstants.START_DOCUMENT:
+                sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+                break;
+            case XMLStreamConstants.START_ELEMENT: {
+                StartElement start = event.asStartElement();
+                sb.append('<');
+                appendName(start.getName(), sb);
+                Iterator<?> namespaces = start.getNamespaces();
+                while (namespaces.hasNext()) {
+                    Namespace namespace = (Namespace) namespaces.next();
+                    sb.append(namespace.isDefaultNamespaceDeclaration() ? " xmlns" : " xmlns:" + namespace.getPrefix());
+                    sb.append("=\"");
+                    escape(namespace.getNamespaceURI(), true, sb);
+                    sb.append('"');
+                }
+                Iterator<?> attributes = start.getAttributes();
+                while (attributes.hasNext()) {
+                    Attribute attribute = (Attribute) attributes.next();
+                    sb.append(' ');
+                    appendName(attribute.getName(), sb);
+                    sb.append("=\"");
+                    escape(attribute.getValue(), true, sb);
+                    sb.append('"');
+                }
+                sb.append('>');
+                break;
+            }
+            case XMLStreamConstants.END_ELEMENT:
+                sb.append("</");
+                appendName(event.asEndElement().getName(), sb);
+                sb.append('>');
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                escape(event.asCharacters().getData(), false, sb);
+                break;
+            case XMLStreamConstants.CDATA:
+                sb.append("<![CDATA[").append(event.asCharacters().getData()).append("]]>");
+                break;
+            case XMLStreamConstants.COMMENT:
+                sb.append("<!--").append(((Comment) event).getText()).append("-->");
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION: {
+                ProcessingInstruction pi = (ProcessingInstruction) event;
+                sb.append("<?").append(pi.getTarget());
+                if (pi.getData() != null && !pi.getData().isEmpty()) {
+                    sb.append(' ').append(pi.getData());
+                }
+                sb.append("?>");
+                break;
+            }
+            case XMLStreamConstants.DTD:
+                sb.append(((DTD) event).getDocumentTypeDeclaration());
+                break;
+            default:
+                // END_DOCUMENT has no text; entity references are expanded by the reader
+                break;
+        }
+    }
+
+    private static void appendName(QName name, StringBuilder sb) {
+        if (!name.getPrefix().isEmpty()) {
+            sb.append(name.getPrefix()).append(':');
+        }
+        sb.append(name.getLocalPart());
+    }
+
+    private static void escape(String text, boolean attribute, StringBuilder sb) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append(attribute ? "&quot;" : "\"");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    public long getTransactionCount() {
+        return transactionCount.get();
+    }
+
+    public long getEnrichedCount() {
+        return enrichedCount.get();
+    }
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes chunks that finish in any order to an OutputStream in the order
+ * they were reserved.
+ *
+ * The producer calls reserve() to get the next sequence number, hands the
+ * chunk to a worker, and the worker calls complete() with the bytes. Whoever
+ * completes the chunk the stream is waiting for writes it, plus any chunks
+ * after it that are already done. At most {@code capacity} chunks can be
+ * reserved and not yet written, so a slow chunk holds back the reader
+ * instead of letting the finished ones pile up in memory.
+ */
+public class ReorderBuffer {
+
+    private final OutputStream out;
+    private final Semaphore slots;
+    private final Map<Long, byte[]> ready = new HashMap<>();
+
+    private long nextReserved;
+    private long nextToWrite;
+    private Throwable failure;
+
+    public ReorderBuffer(OutputStream out, int capacity) {
+        this.out = out;
+        this.slots = new Semaphore(capacity);
+    }
+
+    // Blocks while the buffer is full
+    public long reserve() throws IOException, InterruptedException {
+        slots.acquire();
+        synchronized (this) {
+            checkFailure();
+            return nextReserved++;
+        }
+    }
+
+    public synchronized void complete(long seq, byte[] data) {
+        if (failure != null) {
+            return;
+        }
+        ready.put(seq, data);
+
+        try {
+            byte[] next;
+            while ((next = ready.remove(nextToWrite)) != null) {
+                out.write(next);
+                nextToWrite++;
+                slots.release();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+        notifyAll();
+    }
+
+    public synchronized void fail(Throwable e) {
+        if (failure != null) {
+            return;
+        }
+        failure = e;
+        ready.clear();
+        // Wake up a producer blocked in reserve() so it sees the failure. Only
+        // done once: a second release this size would overflow the Semaphore.
+        slots.release(Integer.MAX_VALUE / 2);
+        notifyAll();
+    }
+
+    // Wait until every reserved chunk has been written
+    public synchronized void awaitWritten() throws IOException, InterruptedException {
+        while (failure == null && nextToWrite < nextReserved) {
+            wait();
+        }
+        checkFailure();
+        out.flush();
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw new IOException("Chunk processing failed", failure);
+        }
+    }
+}
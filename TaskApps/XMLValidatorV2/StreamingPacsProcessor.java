@@ -0,0 +1,226 @@
+import javax.xml.namespace.QName;
+import javax.xml.stream.*;
+import javax.xml.stream.events.*;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import com.xmlvalidator.MappedXmlInput;
+
+/**
+ * Streaming replacement for CXMLProcessor. One forward pass over the file:
+ * the group header values are picked up as they go by, every event is
+ * copied to the output, and a CdtrAcct is written into each OrgnlTxRef
+ * just before its end tag if it does not already have one.
+ *
+ * Nothing is held per transaction except whether it already has a
+ * CdtrAcct, so memory stays flat however many transactions the file has.
+ *
+ * Usage: java StreamingPacsProcessor [input.xml] [output.xml] [creditorAccountId]
+ */
+public class StreamingPacsProcessor {
+
+    // Same fields as CXMLProcessor.printAllValues, as paths relative to any ancestor.
+    // For transaction fields the first transaction's value is kept.
+    private static final String[] PATHS = {
+        "MsgId", "CreDtTm",
+        "InstgAgt/FinInstnId/Othr/Id", "InstdAgt/FinInstnId/Othr/Id",
+        "OrgnlMsgId", "OrgnlMsgNmId", "OrgnlCreDtTm",
+        "IntrBkSttlmAmt", "IntrBkSttlmAmt/@Ccy",
+        "SttlmMtd", "ClrSys/Prtry", "SvcLvl/Prtry"
+    };
+
+    // PATHS split once, as capture() runs on every end element: the element
+    // steps of each path, and the attribute it ends in (null if none)
+    private static final String[][] STEPS = new String[PATHS.length][];
+    private static final String[] ATTRIBUTES = new String[PATHS.length];
+
+    static {
+        for (int i = 0; i < PATHS.length; i++) {
+            String[] steps = PATHS[i].split("/");
+            String last = steps[steps.length - 1];
+            if (last.startsWith("@")) {
+                ATTRIBUTES[i] = last.substring(1);
+                steps = Arrays.copyOf(steps, steps.length - 1);
+            }
+            STEPS[i] = steps;
+        }
+    }
+
+    private final String creditorAccountId;
+    private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    private final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private long transactionCount;
+    private long enrichedCount;
+
+    public StreamingPacsProcessor(String creditorAccountId) {
+        this.creditorAccountId = creditorAccountId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path input = Path.of(args.length > 0 ? args[0] : "test_files/pac008_sample.xml");
+        Path output = Path.of(args.length > 1 ? args[1] : "bin/pac008_sample_modified.xml");
+        String accountId = args.length > 2 ? args[2] : "";
+
+        StreamingPacsProcessor processor = new StreamingPacsProcessor(accountId);
+        processor.process(input, output);
+
+        System.out.println("=== Original Values ===");
+        processor.getValues().forEach((path, value) -> System.out.println("//" + path + ": " + value));
+
+        System.out.println("\n=== After Modification ===");
+        System.out.println("Transactions: " + processor.getTransactionCount());
+        System.out.println("CdtrAcct added: " + processor.getEnrichedCount());
+        System.out.println("Output saved to: " + output);
+    }
+
+    public void process(Path input, Path output) throws Exception {
+        values.clear();
+        transactionCount = 0;
+        enrichedCount = 0;
+
+        try (InputStream in = MappedXmlInput.openStream(input);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+
+            XMLEventReader reader = inputFactory.createXMLEventReader(in);
+            XMLEventWriter writer = outputFactory.createXMLEventWriter(out, "UTF-8");
+
+            // Local names of the open elements, innermost first
+            Deque<String> path = new ArrayDeque<>();
+            StringBuilder text = new StringBuilder();
+            boolean hasCdtrAcct = false;
+
+            try {
+                while (reader.hasNext()) {
+                    XMLEvent event = reader.nextEvent();
+
+                    if (event.isStartElement()) {
+                        StartElement start = event.asStartElement();
+                        String name = start.getName().getLocalPart();
+                        path.push(name);
+                        text.setLength(0);
+
+                        if ("OrgnlTxRef".equals(name)) {
+                            transactionCount++;
+                            hasCdtrAcct = false;
+                        } else if ("CdtrAcct".equals(name) && path.size() > 1
+                                && "OrgnlTxRef".equals(secondOf(path))) {
+                            hasCdtrAcct = true;
+                        }
+
+                        Iterator<?> attributes = start.getAttributes();
+                        while (attributes.hasNext()) {
+                            Attribute attribute = (Attribute) attributes.next();
+                            capture(path, attribute.getName().getLocalPart(), attribute.getValue());
+                        }
+                    } else if (event.isCharacters()) {
+                        text.append(event.asCharacters().getData());
+                    } else if (event.isEndElement()) {
+                        EndElement end = event.asEndElement();
+                        String name = end.getName().getLocalPart();
+
+                        if (values.size() < PATHS.length) {
+                            capture(path, null, text.toString().trim());
+                        }
+                        text.setLength(0);
+
+                        if ("OrgnlTxRef".equals(name) && !hasCdtrAcct) {
+                            writeCdtrAcct(writer, end.getName());
+                            enrichedCount++;
+                        }
+                        path.pop();
+                    }
+
+                    writer.add(event);
+                }
+
+                writer.flush();
+            } finally {
+                writer.close();
+                reader.close();
+            }
+        }
+    }
+
+    // Record the value for every path that matches the open elements (plus
+    // the attribute's local name, if given) and has not been seen yet.
+    private void capture(Deque<String> path, String attribute, String value) {
+        if (value.isEmpty() || values.size() == PATHS.length) {
+            return;
+        }
+        for (int i = 0; i < PATHS.length; i++) {
+            if (Objects.equals(attribute, ATTRIBUTES[i])
+                    && !values.containsKey(PATHS[i])
+                    && endsWith(path, STEPS[i])) {
+                values.put(PATHS[i], value);
+            }
+        }
+    }
+
+    private static boolean endsWith(Deque<String> path, String[] steps) {
+        if (steps.length > path.size()) {
+            return false;
+        }
+        Iterator<String> open = path.iterator();
+        for (int i = steps.length - 1; i >= 0; i--) {
+            if (!steps[i].equals(open.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String secondOf(Deque<String> path) {
+        Iterator<String> it = path.iterator();
+        it.next();
+        return it.next();
+    }
+
+    private void writeCdtrAcct(XMLEventWriter writer, QName parent) throws XMLStreamException {
+        for (XMLEvent event : cdtrAcctEvents(eventFactory, parent, creditorAccountId)) {
+            writer.add(event);
+        }
+    }
+
+    // <CdtrAcct><Id><Othr><Id>...</Id></Othr></Id></CdtrAcct>, in the namespace of OrgnlTxRef
+    static List<XMLEvent> cdtrAcctEvents(XMLEventFactory eventFactory, QName parent, String accountId) {
+        String[] names = {"CdtrAcct", "Id", "Othr", "Id"};
+        List<XMLEvent> events = new ArrayList<>(names.length * 2 + 1);
+
+        for (String name : names) {
+            events.add(eventFactory.createStartElement(parent.getPrefix(), parent.getNamespaceURI(), name));
+        }
+        if (!accountId.isEmpty()) {
+            events.add(eventFactory.createCharacters(accountId));
+        }
+        for (int i = names.length - 1; i >= 0; i--) {
+            events.add(eventFactory.createEndElement(parent.getPrefix(), parent.getNamespaceURI(), names[i]));
+        }
+        return events;
+    }
+
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public long getEnrichedCount() {
+        return enrichedCount;
+    }
+}
@@ -1,15 +1,19 @@
 import org.w3c.dom.*;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.*;
-import javax.xml.transform.stream.*;
 import javax.xml.parsers.*;
-import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import com.xmlvalidator.MappedXmlInput;
+import com.xmlvalidator.XmlSerializer;
 
 public class XmlModifier {
     public static void main(String[] args) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(new File("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\test_files\\pac008_sample.xml"));
+        Path input = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\test_files\\pac008_sample.xml");
+        Document doc;
+        try (InputStream in = MappedXmlInput.openStream(input)) {
+            doc = builder.parse(MappedXmlInput.inputSource(in, input));
+        }
         
         // Add CdtrAcct to all OrgnlTxRef elements
         NodeList orgnlTxRefs = doc.getElementsByTagName("OrgnlTxRef");
@@ -32,14 +36,9 @@ public class XmlModifier {
         }
         
         // Save the modified document
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-        
-        DOMSource source = new DOMSource(doc);
-        StreamResult result = new StreamResult(new File("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\bin\\pac008_sample_modified.xml"));
-        transformer.transform(source, result);
+        XmlSerializer.write(doc,
+            Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\bin\\pac008_sample_modified.xml"),
+            XmlSerializer.Preset.INDENT_2);
         
         System.out.println("Modified XML saved with CdtrAcct elements added");
     }
@@ -1,13 +1,19 @@
 import javax.xml.xpath.*;
 import org.w3c.dom.*;
 import javax.xml.parsers.*;
-import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import com.xmlvalidator.MappedXmlInput;
 
 public class XmlProcessor {
     public static void main(String[] args) throws Exception {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(new File("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\test_files\\pac008_sample.xml"));
+        Path input = Path.of("C:\\Users\\Ogweno\\Desktop\\SkyWorld\\JAVA\\TaskApps\\XMLValidatorV2\\test_files\\pac008_sample.xml");
+        Document doc;
+        try (InputStream in = MappedXmlInput.openStream(input)) {
+            doc = builder.parse(MappedXmlInput.inputSource(in, input));
+        }
         
         XPathFactory xPathFactory = XPathFactory.newInstance();
         XPath xpath = xPathFactory.newXPath();
@@ -27,11 +33,11 @@ public class XmlProcessor {
         System.out.println("SvcLvl Prtry: " + getValue(doc, xpath, "//SvcLvl/Prtry"));
     }
     
-    private static String getValue(Document doc, XPath xpath, String expression) throws XPathExpressionException {
+    static String getValue(Document doc, XPath xpath, String expression) throws XPathExpressionException {
         return xpath.evaluate(expression, doc);
     }
     
-    private static String getAttribute(Document doc, XPath xpath, String expression) throws XPathExpressionException {
+    static String getAttribute(Document doc, XPath xpath, String expression) throws XPathExpressionException {
         return xpath.evaluate(expression, doc);
     }
 }
\ No newline at end of file